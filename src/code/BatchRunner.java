@@ -0,0 +1,359 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+
+/**
+ * Writes a report for each of many country files. Every input gets its own
+ * virtual thread, and a semaphore bounds how many inputs are processed at
+ * once so memory use stays predictable however many files are given.
+ * Inputs can be run on platform threads instead, for measurements such as
+ * the JVM's per-thread allocation counters that virtual threads do not
+ * support.
+ * <p>
+ * Inputs are named by a directory, meaning every regular file below it, or
+ * by a glob such as {@code regions/*.txt}. Each report is written to the
+ * output directory under the input's path relative to the directory or
+ * glob base, with the file name {@code <name>-data.txt}.
+ * <p>
+ * Files the batch writes itself are never taken as inputs: anything below
+ * the output directory, unless the inputs are named from inside it, and
+ * the reports of the other inputs when they are written next to them,
+ * that is the report, its compressed, per-section and temporary variants
+ * and its checkpoint directory. Running a batch twice over a directory
+ * that also holds its output therefore reads the same inputs both times.
+ * Every file left out this way is logged. Two inputs whose reports would
+ * have the same path, such as {@code a.txt} and {@code a.csv}, fail the
+ * batch before any report is written.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class BatchRunner
+{
+    private static final String GLOB_CHARACTERS    = "*?[{";
+    private static final String OUTPUT_SUFFIX      = "-data.txt";
+    private static final String OUTPUT_EXTENSION   = ".txt";
+    private static final String PARTS_SUFFIX       = ".parts";
+    private static final String VARIANT_SEPARATORS = ".-";
+
+    private static final System.Logger LOGGER = System.getLogger(BatchRunner.class.getName());
+
+    private final Path          outputDirectory;
+    private final int           concurrency;
+    private final ThreadFactory threadFactory;
+    private final Generation    generation;
+
+    /**
+     * The work done for one input file.
+     */
+    @FunctionalInterface
+    public interface Generation
+    {
+        /**
+         * Writes the report for one input.
+         *
+         * @param countriesPath The country file to read.
+         * @param dataPath      The report file to write.
+         * @throws IOException If the report cannot be written.
+         */
+        void run(Path countriesPath,
+                 Path dataPath) throws IOException;
+    }
+
+    /*
+     * One input and the base its output path is relative to.
+     */
+    private record Input(Path base,
+                         Path file)
+    {
+    }
+
+    /**
+     * Creates a batch runner that processes each input on a virtual
+     * thread.
+     *
+     * @param outputDirectory The directory the reports are written to.
+     * @param concurrency     The most inputs processed at the same time.
+     * @param generation      Writes the report for one input.
+     */
+    public BatchRunner(final Path outputDirectory,
+                       final int concurrency,
+                       final Generation generation)
+    {
+        this(outputDirectory, concurrency, Thread.ofVirtual().factory(), generation);
+    }
+
+    /**
+     * Creates a batch runner that processes each input on a thread of its
+     * own made by the given factory.
+     *
+     * @param outputDirectory The directory the reports are written to.
+     * @param concurrency     The most inputs processed at the same time.
+     * @param threadFactory   Creates the thread of each input.
+     * @param generation      Writes the report for one input.
+     */
+    public BatchRunner(final Path outputDirectory,
+                       final int concurrency,
+                       final ThreadFactory threadFactory,
+                       final Generation generation)
+    {
+        if(concurrency <= 0)
+        {
+            throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+        }
+
+        this.outputDirectory = outputDirectory;
+        this.concurrency     = concurrency;
+        this.threadFactory   = threadFactory;
+        this.generation      = generation;
+    }
+
+    /**
+     * Writes a report for every input matched by a directory or glob. A
+     * failed input does not stop the others; the failures are reported
+     * together once every input has been processed.
+     *
+     * @param inputs A directory or a glob naming the country files.
+     * @return The number of reports written.
+     * @throws IOException          If the inputs cannot be listed or any
+     *                              input fails.
+     * @throws InterruptedException If the thread is interrupted while
+     *                              waiting for a free slot.
+     */
+    public int run(final String inputs) throws IOException, InterruptedException
+    {
+        final List<Input>     files;
+        final Semaphore       slots;
+        final List<Future<?>> results;
+        final IOException     failure;
+        int                   written;
+
+        files   = resolve(inputs);
+        slots   = new Semaphore(concurrency);
+        results = new ArrayList<>();
+
+        try(final ExecutorService executor = Executors.newThreadPerTaskExecutor(threadFactory))
+        {
+            for(final Input input : files)
+            {
+                slots.acquire();
+                results.add(executor.submit(()->
+                                            {
+                                                try
+                                                {
+                                                    generation.run(input.file(), outputPath(input));
+                                                    return null;
+                                                }
+                                                finally
+                                                {
+                                                    slots.release();
+                                                }
+                                            }));
+            }
+        }
+
+        failure = new IOException("Failed to write reports for some of the inputs in " + inputs);
+        written = 0;
+        for(final Future<?> result : results)
+        {
+            try
+            {
+                result.get();
+                written++;
+            }
+            catch(final ExecutionException e)
+            {
+                failure.addSuppressed(e.getCause());
+            }
+        }
+
+        if(failure.getSuppressed().length > 0)
+        {
+            throw failure;
+        }
+
+        return written;
+    }
+
+    /*
+     * Returns the report path of an input, mirroring its relative path.
+     */
+    private Path outputPath(final Input input)
+    {
+        final Path   relative;
+        final String fileName;
+        final int    extension;
+
+        relative  = input.base().relativize(input.file());
+        fileName  = relative.getFileName().toString();
+        extension = fileName.lastIndexOf('.');
+
+        return outputDirectory.resolve(relative)
+                .resolveSibling((extension > 0 ? fileName.substring(0, extension) : fileName) + OUTPUT_SUFFIX);
+    }
+
+    /*
+     * Lists the regular files named by a directory or glob, sorted by path,
+     * leaving out the files the batch generates, and fails if two inputs
+     * would write the same report.
+     */
+    private List<Input> resolve(final String inputs) throws IOException
+    {
+        final Path             base;
+        final PathMatcher      matcher;
+        final int              globStart;
+        final List<Path>       candidates;
+        final Set<Path>        reportStems;
+        final Set<Path>        partsDirectories;
+        final Map<Path, Input> reports;
+
+        globStart = indexOfGlob(inputs);
+        if(globStart < 0)
+        {
+            base    = Paths.get(inputs);
+            matcher = path->true;
+            if(!Files.isDirectory(base))
+            {
+                throw new IOException("Not a directory or glob: " + inputs);
+            }
+        }
+        else
+        {
+            final int baseEnd;
+
+            baseEnd = Math.max(inputs.lastIndexOf('/', globStart),
+                               inputs.lastIndexOf(File.separatorChar, globStart));
+            base    = baseEnd < 0 ? Paths.get(".") : Paths.get(inputs.substring(0, baseEnd));
+            matcher = base.getFileSystem().getPathMatcher("glob:" + inputs.substring(baseEnd + 1));
+        }
+
+        try(final Stream<Path> paths = Files.walk(base))
+        {
+            candidates = paths.filter(Files::isRegularFile)
+                    .filter(path->matcher.matches(base.relativize(path)))
+                    .filter(path->!inOutputDirectory(base, path))
+                    .sorted()
+                    .toList();
+        }
+        catch(final UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+
+        reportStems      = new HashSet<>();
+        partsDirectories = new HashSet<>();
+        for(final Path candidate : candidates)
+        {
+            final Path   report;
+            final String reportName;
+
+            report     = outputPath(new Input(base, candidate)).toAbsolutePath().normalize();
+            reportName = report.getFileName().toString();
+            reportStems.add(report.resolveSibling(reportName.substring(0, reportName.length() - OUTPUT_EXTENSION.length())));
+            partsDirectories.add(report.resolveSibling(reportName + PARTS_SUFFIX));
+        }
+
+        reports = new HashMap<>();
+        for(final Path candidate : candidates)
+        {
+            final Input input;
+            final Input previous;
+
+            if(isReportOfAnotherInput(candidate, reportStems, partsDirectories))
+            {
+                LOGGER.log(System.Logger.Level.INFO, "Skipping generated file {0}", candidate);
+                continue;
+            }
+
+            input    = new Input(base, candidate);
+            previous = reports.putIfAbsent(outputPath(input).toAbsolutePath().normalize(), input);
+            if(previous != null)
+            {
+                throw new IOException("Inputs " + previous.file() + " and " + candidate +
+                                      " would both write " + outputPath(input));
+            }
+        }
+
+        return reports.values()
+                .stream()
+                .sorted(Comparator.comparing(Input::file))
+                .toList();
+    }
+
+    /*
+     * Returns true if a file lies in the output directory while the inputs
+     * are named from outside it, logging it as skipped.
+     */
+    private boolean inOutputDirectory(final Path base,
+                                      final Path file)
+    {
+        final Path output;
+
+        output = outputDirectory.toAbsolutePath().normalize();
+        if(!base.toAbsolutePath().normalize().startsWith(output) &&
+           file.toAbsolutePath().normalize().startsWith(output))
+        {
+            LOGGER.log(System.Logger.Level.INFO, "Skipping file in the output directory {0}", file);
+            return true;
+        }
+
+        return false;
+    }
+
+    /*
+     * Returns true if a file is the report of one of the inputs, a
+     * compressed, per-section or temporary variant of it, or lies in its
+     * checkpoint directory: its name is a report's name without the
+     * extension, followed by a dot or a hyphen.
+     */
+    private static boolean isReportOfAnotherInput(final Path file,
+                                                  final Set<Path> reportStems,
+                                                  final Set<Path> partsDirectories)
+    {
+        final Path   absolute;
+        final String name;
+
+        absolute = file.toAbsolutePath().normalize();
+        for(Path parent = absolute.getParent(); parent != null; parent = parent.getParent())
+        {
+            if(partsDirectories.contains(parent))
+            {
+                return true;
+            }
+        }
+
+        name = absolute.getFileName().toString();
+        for(int i = 1; i < name.length(); i++)
+        {
+            if(VARIANT_SEPARATORS.indexOf(name.charAt(i)) >= 0 &&
+               reportStems.contains(absolute.resolveSibling(name.substring(0, i))))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /*
+     * Returns the index of the first glob character, or -1 if there is none.
+     */
+    private static int indexOfGlob(final String inputs)
+    {
+        for(int i = 0; i < inputs.length(); i++)
+        {
+            if(GLOB_CHARACTERS.indexOf(inputs.charAt(i)) >= 0)
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,883 @@
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+
+
+/**
+ * An index over a list of country names answering prefix, suffix and
+ * substring queries in any {@link MatchMode}. Matches are always returned
+ * in input order.
+ * <p>
+ * Only the names are kept as they are added, as ids of a {@link NamePool}.
+ * A report run only asks a
+ * handful of queries, which a scan of the names answers faster than any
+ * index could be built, so every query starts as a scan; the ad-hoc
+ * queries of a {@link QueryServer} keep asking over the same names. The
+ * first query in a mode maps every distinct name to that mode's key once,
+ * and every later scan and structure in that mode compares those keys,
+ * so no name is folded or normalized twice, however often it occurs. Once one kind of query has been
+ * asked {@value #DEFAULT_INDEX_AFTER_QUERIES} times in one mode over the
+ * same names, the structure for that kind is built from the keys; other
+ * kinds and modes are not built until they are needed. The benchmark suite's {@code countryIndex} benchmark measures
+ * where the index starts to pay for itself.
+ * <p>
+ * The prefix and suffix tries are stored flattened: the name ids sorted by
+ * key, read forwards for prefixes and backwards for suffixes. Every trie
+ * node is then a contiguous range of that order, found by binary search,
+ * so each direction costs one int per name instead of a node per
+ * character. Substrings of at least {@value #GRAM_LENGTH} characters are
+ * found through an index of the ids whose key holds each
+ * {@value #GRAM_LENGTH}-gram, kept in primitive arrays; shorter substrings
+ * are always scanned.
+ * <p>
+ * Names are added and combined like any collector container, from one
+ * thread at a time. Queries may run concurrently once every name is
+ * added. The built structures are reused by every later query and dropped
+ * if more names are added.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class CountryIndex implements PooledNames<CountryIndex>
+{
+    /**
+     * The number of queries of one kind and mode answered by scanning
+     * before the structure for them is built.
+     */
+    public static final int DEFAULT_INDEX_AFTER_QUERIES = 32;
+
+    private static final int GRAM_LENGTH      = 3;
+    private static final int MODES            = MatchMode.values().length;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int indexAfterQueries;
+
+    private NamePool pool;
+    private int[]    nameIds;
+    private int      size;
+
+    private String[][]  keys;
+    private int[][]     byPrefix;
+    private int[][]     bySuffix;
+    private GramIndex[] grams;
+    private int[]       queryCounts;
+
+    /**
+     * Creates an empty index that builds its structures once they pay for
+     * themselves.
+     */
+    public CountryIndex()
+    {
+        this(DEFAULT_INDEX_AFTER_QUERIES);
+    }
+
+    /**
+     * Creates an empty index.
+     *
+     * @param indexAfterQueries The number of queries of one kind and mode
+     *                          answered by scanning before the structure
+     *                          for them is built; 0 builds it on the first
+     *                          query.
+     */
+    public CountryIndex(final int indexAfterQueries)
+    {
+        if(indexAfterQueries < 0)
+        {
+            throw new IllegalArgumentException("Query count must not be negative: " + indexAfterQueries);
+        }
+
+        this.indexAfterQueries = indexAfterQueries;
+
+        pool    = new NamePool();
+        nameIds = new int[INITIAL_CAPACITY];
+        size    = 0;
+    }
+
+    /**
+     * Adds a name after every name added so far.
+     *
+     * @param name The name to add.
+     */
+    public void add(final String name)
+    {
+        addId(pool.add(name));
+    }
+
+    /**
+     * Appends the names of an index built over the names that follow this
+     * index's names in the input.
+     *
+     * @param other The index for the following chunk of the input.
+     * @return This index.
+     */
+    public CountryIndex combine(final CountryIndex other)
+    {
+        append(other, other.pool == pool ? null : pool.combine(other.pool));
+
+        return this;
+    }
+
+    @Override
+    public void usePool(final NamePool pool)
+    {
+        if(size > 0)
+        {
+            throw new IllegalStateException("Names were already added.");
+        }
+
+        this.pool = pool;
+    }
+
+    @Override
+    public void addId(final int id)
+    {
+        if(size == nameIds.length)
+        {
+            nameIds = Arrays.copyOf(nameIds, size * 2);
+        }
+
+        nameIds[size] = id;
+        size++;
+        if(queryCounts != null)
+        {
+            clear();
+        }
+    }
+
+    @Override
+    public void append(final CountryIndex other,
+                       final int[] poolIds)
+    {
+        for(int i = 0; i < other.size; i++)
+        {
+            addId(poolIds == null ? other.nameIds[i] : poolIds[other.nameIds[i]]);
+        }
+        clear();
+    }
+
+    /**
+     * @return The number of names in the index.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Finds the names starting with a prefix.
+     *
+     * @param prefix The prefix to look for.
+     * @param mode   How the prefix is compared.
+     * @return The matching names, in input order.
+     */
+    public synchronized List<String> startingWith(final String prefix,
+                                                  final MatchMode mode)
+    {
+        if(!useIndex(mode, Kind.STARTS_WITH))
+        {
+            return scan(mode.key(prefix), mode, Kind.STARTS_WITH, Integer.MAX_VALUE);
+        }
+
+        return toNames(range(prefixOrder(mode), keys(mode), mode.key(prefix), false, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Finds the names ending with a suffix.
+     *
+     * @param suffix The suffix to look for.
+     * @param mode   How the suffix is compared.
+     * @return The matching names, in input order.
+     */
+    public synchronized List<String> endingWith(final String suffix,
+                                                final MatchMode mode)
+    {
+        if(!useIndex(mode, Kind.ENDS_WITH))
+        {
+            return scan(mode.key(suffix), mode, Kind.ENDS_WITH, Integer.MAX_VALUE);
+        }
+
+        if(bySuffix[mode.ordinal()] == null)
+        {
+            bySuffix[mode.ordinal()] = sortedIds(keys(mode), true);
+        }
+
+        return toNames(range(bySuffix[mode.ordinal()], keys(mode), mode.key(suffix), true, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Checks for a name starting with a prefix without listing the matches.
+     *
+     * @param prefix The prefix to look for.
+     * @param mode   How the prefix is compared.
+     * @return True if any name starts with the prefix.
+     */
+    public synchronized boolean anyStartingWith(final String prefix,
+                                                final MatchMode mode)
+    {
+        if(!useIndex(mode, Kind.STARTS_WITH))
+        {
+            return !scan(mode.key(prefix), mode, Kind.STARTS_WITH, 1).isEmpty();
+        }
+
+        return range(prefixOrder(mode), keys(mode), mode.key(prefix), false, 1).length > 0;
+    }
+
+    /**
+     * Finds the names containing a substring.
+     *
+     * @param substring The substring to look for.
+     * @param mode      How the substring is compared.
+     * @return The matching names, in input order.
+     */
+    public synchronized List<String> containing(final String substring,
+                                                final MatchMode mode)
+    {
+        final String       key;
+        final String[]     modeKeys;
+        final GramIndex    modeGrams;
+        final List<String> matches;
+        int                candidates;
+
+        key = mode.key(substring);
+        if(key.length() < GRAM_LENGTH || !useIndex(mode, Kind.CONTAINS))
+        {
+            return scan(key, mode, Kind.CONTAINS, Integer.MAX_VALUE);
+        }
+
+        modeKeys = keys(mode);
+        if(grams[mode.ordinal()] == null)
+        {
+            grams[mode.ordinal()] = new GramIndex(modeKeys);
+        }
+
+        modeGrams  = grams[mode.ordinal()];
+        matches    = new ArrayList<>();
+        candidates = -1;
+        for(int i = 0; i + GRAM_LENGTH <= key.length(); i++)
+        {
+            final int slot;
+
+            slot = modeGrams.find(gram(key, i));
+            if(slot < 0)
+            {
+                return matches;
+            }
+            if(candidates < 0 || modeGrams.count(slot) < modeGrams.count(candidates))
+            {
+                candidates = slot;
+            }
+        }
+
+        for(int i = modeGrams.start(candidates); i < modeGrams.start(candidates) + modeGrams.count(candidates); i++)
+        {
+            if(modeKeys[modeGrams.id(i)].contains(key))
+            {
+                matches.add(name(modeGrams.id(i)));
+            }
+        }
+
+        return matches;
+    }
+
+    /*
+     * The ways a query relates a name to the text it looks for.
+     */
+    private enum Kind
+    {
+        STARTS_WITH,
+        ENDS_WITH,
+        CONTAINS
+    }
+
+    /*
+     * Forgets the built structures and query counts after the names change.
+     */
+    private void clear()
+    {
+        keys        = null;
+        byPrefix    = null;
+        bySuffix    = null;
+        grams       = null;
+        queryCounts = null;
+    }
+
+    /*
+     * Counts a query of one kind and mode and returns true once enough of
+     * them have been asked over the same names for its structure to pay
+     * off.
+     */
+    private boolean useIndex(final MatchMode mode,
+                             final Kind kind)
+    {
+        final int counter;
+
+        prepare();
+        counter = kind.ordinal() * MODES + mode.ordinal();
+        if(queryCounts[counter] < indexAfterQueries)
+        {
+            queryCounts[counter]++;
+            return false;
+        }
+
+        return true;
+    }
+
+    /*
+     * Makes room for the keys, structures and query counts of every mode
+     * after the names change.
+     */
+    private void prepare()
+    {
+        if(queryCounts == null)
+        {
+            queryCounts = new int[MODES * Kind.values().length];
+            keys        = new String[MODES][];
+            byPrefix    = new int[MODES][];
+            bySuffix    = new int[MODES][];
+            grams       = new GramIndex[MODES];
+        }
+    }
+
+    /*
+     * Answers a query by comparing the mode's key of every name with the
+     * query's key, stopping after limit matches.
+     */
+    private List<String> scan(final String key,
+                              final MatchMode mode,
+                              final Kind kind,
+                              final int limit)
+    {
+        final String[]     modeKeys;
+        final List<String> matches;
+
+        modeKeys = keys(mode);
+        matches  = new ArrayList<>();
+        for(int id = 0; id < modeKeys.length && matches.size() < limit; id++)
+        {
+            final boolean found;
+
+            found = switch(kind)
+            {
+                case STARTS_WITH -> modeKeys[id].startsWith(key);
+                case ENDS_WITH   -> modeKeys[id].endsWith(key);
+                case CONTAINS    -> modeKeys[id].contains(key);
+            };
+            if(found)
+            {
+                matches.add(name(id));
+            }
+        }
+
+        return matches;
+    }
+
+    /*
+     * Returns every name mapped to a mode's key, mapping each distinct name
+     * once on first use. Exact keys are the names themselves.
+     */
+    private String[] keys(final MatchMode mode)
+    {
+        prepare();
+        if(keys[mode.ordinal()] == null)
+        {
+            final String[] poolKeys;
+            final String[] modeKeys;
+
+            poolKeys = new String[pool.size()];
+            modeKeys = new String[size];
+            for(int id = 0; id < modeKeys.length; id++)
+            {
+                final int poolId;
+
+                poolId = nameIds[id];
+                if(poolKeys[poolId] == null)
+                {
+                    poolKeys[poolId] = mode.key(pool.name(poolId));
+                }
+                modeKeys[id] = poolKeys[poolId];
+            }
+            keys[mode.ordinal()] = modeKeys;
+        }
+
+        return keys[mode.ordinal()];
+    }
+
+    /*
+     * Returns the name at a position of the input.
+     */
+    private String name(final int id)
+    {
+        return pool.name(nameIds[id]);
+    }
+
+    /*
+     * Returns the ids sorted by a mode's keys, sorting them on first use.
+     */
+    private int[] prefixOrder(final MatchMode mode)
+    {
+        if(byPrefix[mode.ordinal()] == null)
+        {
+            byPrefix[mode.ordinal()] = sortedIds(keys(mode), false);
+        }
+
+        return byPrefix[mode.ordinal()];
+    }
+
+    /*
+     * Returns every id ordered by key, read backwards when reversed.
+     */
+    private static int[] sortedIds(final String[] keys,
+                                   final boolean reversed)
+    {
+        final int[] ids;
+
+        ids = new int[keys.length];
+        for(int i = 0; i < ids.length; i++)
+        {
+            ids[i] = i;
+        }
+
+        sort(ids, (first, second)->compare(keys[first], keys[second], reversed));
+
+        return ids;
+    }
+
+    /*
+     * Returns the ids of up to limit keys starting (or, when reversed,
+     * ending) with the given key, in input order.
+     */
+    private static int[] range(final int[] order,
+                               final String[] keys,
+                               final String key,
+                               final boolean reversed,
+                               final int limit)
+    {
+        final int   low;
+        final int   high;
+        final int[] ids;
+
+        low  = lowerBound(order, keys, key, reversed);
+        high = upperBound(order, keys, key, reversed);
+        ids  = Arrays.copyOfRange(order, low, low + Math.min(high - low, limit));
+        Arrays.sort(ids);
+
+        return ids;
+    }
+
+    /*
+     * Returns the first position whose key does not sort before the given
+     * key.
+     */
+    private static int lowerBound(final int[] order,
+                                  final String[] keys,
+                                  final String key,
+                                  final boolean reversed)
+    {
+        int low;
+        int high;
+
+        low  = 0;
+        high = order.length;
+        while(low < high)
+        {
+            final int middle;
+
+            middle = (low + high) >>> 1;
+            if(compareStart(keys[order[middle]], key, reversed) < 0)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /*
+     * Returns the first position whose key sorts after every key starting
+     * with the given key.
+     */
+    private static int upperBound(final int[] order,
+                                  final String[] keys,
+                                  final String key,
+                                  final boolean reversed)
+    {
+        int low;
+        int high;
+
+        low  = 0;
+        high = order.length;
+        while(low < high)
+        {
+            final int middle;
+
+            middle = (low + high) >>> 1;
+            if(compareStart(keys[order[middle]], key, reversed) <= 0)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /*
+     * Maps ids to their names.
+     */
+    private List<String> toNames(final int[] ids)
+    {
+        final List<String> matches;
+
+        matches = new ArrayList<>(ids.length);
+        for(final int id : ids)
+        {
+            matches.add(name(id));
+        }
+
+        return matches;
+    }
+
+    /*
+     * Compares two keys, read backwards when reversed.
+     */
+    private static int compare(final String first,
+                               final String second,
+                               final boolean reversed)
+    {
+        final int length;
+
+        if(!reversed)
+        {
+            return first.compareTo(second);
+        }
+
+        length = Math.min(first.length(), second.length());
+        for(int i = 0; i < length; i++)
+        {
+            final int difference;
+
+            difference = charAt(first, i, true) - charAt(second, i, true);
+            if(difference != 0)
+            {
+                return difference;
+            }
+        }
+
+        return first.length() - second.length();
+    }
+
+    /*
+     * Compares the start of a key with another key, returning 0 when the
+     * first starts with the second.
+     */
+    private static int compareStart(final String key,
+                                    final String start,
+                                    final boolean reversed)
+    {
+        for(int i = 0; i < start.length(); i++)
+        {
+            final int difference;
+
+            if(i == key.length())
+            {
+                return -1;
+            }
+
+            difference = charAt(key, i, reversed) - charAt(start, i, reversed);
+            if(difference != 0)
+            {
+                return difference;
+            }
+        }
+
+        return 0;
+    }
+
+    /*
+     * Returns a character counted from the start, or from the end when
+     * reversed.
+     */
+    private static char charAt(final String text,
+                               final int index,
+                               final boolean reversed)
+    {
+        return reversed ? text.charAt(text.length() - 1 - index) : text.charAt(index);
+    }
+
+    /*
+     * Packs the gram starting at an index into one key.
+     */
+    private static long gram(final String text,
+                             final int index)
+    {
+        long key;
+
+        key = 0;
+        for(int i = 0; i < GRAM_LENGTH; i++)
+        {
+            key = key << Character.SIZE | text.charAt(index + i);
+        }
+
+        return key;
+    }
+
+    /*
+     * Sorts ids with a stable merge sort, since the JDK only sorts
+     * primitives in their natural order.
+     */
+    private static void sort(final int[] ids,
+                             final IntBinaryOperator order)
+    {
+        mergeSort(ids.clone(), ids, 0, ids.length, order);
+    }
+
+    /*
+     * Sorts target[from, to) using source, which holds the same ids, as
+     * scratch space.
+     */
+    private static void mergeSort(final int[] source,
+                                  final int[] target,
+                                  final int from,
+                                  final int to,
+                                  final IntBinaryOperator order)
+    {
+        final int middle;
+        int       left;
+        int       right;
+
+        if(to - from < 2)
+        {
+            return;
+        }
+
+        middle = (from + to) >>> 1;
+        mergeSort(target, source, from, middle, order);
+        mergeSort(target, source, middle, to, order);
+
+        left  = from;
+        right = middle;
+        for(int i = from; i < to; i++)
+        {
+            if(right == to || (left < middle && order.applyAsInt(source[left], source[right]) <= 0))
+            {
+                target[i] = source[left];
+                left++;
+            }
+            else
+            {
+                target[i] = source[right];
+                right++;
+            }
+        }
+    }
+
+    /*
+     * The ids of the keys holding each gram, in ascending order. Grams are
+     * found by open addressing in a table of packed gram keys that doubles
+     * as it fills, and the ids of every gram are stored together in one
+     * array, so the whole index is a handful of primitive arrays. It is
+     * filled in two passes over the keys: one counting the ids of each
+     * gram, one storing them.
+     */
+    private static final class GramIndex
+    {
+        private static final long EMPTY            = -1L;
+        private static final int  INITIAL_CAPACITY = 1 << 10;
+
+        private long[] slots;
+        private int[]  counts;
+        private int[]  lastIds;
+        private int    size;
+        private int[]  starts;
+        private int[]  ids;
+
+        GramIndex(final String[] keys)
+        {
+            int next;
+
+            slots   = emptySlots(INITIAL_CAPACITY);
+            counts  = new int[INITIAL_CAPACITY];
+            lastIds = new int[INITIAL_CAPACITY];
+            Arrays.fill(lastIds, -1);
+
+            for(int id = 0; id < keys.length; id++)
+            {
+                final String key;
+
+                key = keys[id];
+                for(int i = 0; i + GRAM_LENGTH <= key.length(); i++)
+                {
+                    final int slot;
+
+                    slot = insert(gram(key, i));
+                    if(lastIds[slot] != id)
+                    {
+                        lastIds[slot] = id;
+                        counts[slot]++;
+                    }
+                }
+            }
+
+            starts = new int[slots.length];
+            next   = 0;
+            for(int slot = 0; slot < slots.length; slot++)
+            {
+                starts[slot] = next;
+                next        += counts[slot];
+            }
+
+            ids = new int[next];
+            Arrays.fill(lastIds, -1);
+            Arrays.fill(counts, 0);
+            for(int id = 0; id < keys.length; id++)
+            {
+                final String key;
+
+                key = keys[id];
+                for(int i = 0; i + GRAM_LENGTH <= key.length(); i++)
+                {
+                    final int slot;
+
+                    slot = find(gram(key, i));
+                    if(lastIds[slot] != id)
+                    {
+                        lastIds[slot] = id;
+                        ids[starts[slot] + counts[slot]] = id;
+                        counts[slot]++;
+                    }
+                }
+            }
+
+            lastIds = null;
+        }
+
+        /*
+         * Returns the slot of a gram, or -1 if no key holds it.
+         */
+        int find(final long gram)
+        {
+            final int slot;
+
+            slot = probe(slots, gram);
+
+            return slots[slot] == EMPTY ? -1 : slot;
+        }
+
+        /*
+         * Returns the position in ids of the first id of a slot's gram.
+         */
+        int start(final int slot)
+        {
+            return starts[slot];
+        }
+
+        /*
+         * Returns the number of ids of a slot's gram.
+         */
+        int count(final int slot)
+        {
+            return counts[slot];
+        }
+
+        /*
+         * Returns the id stored at a position.
+         */
+        int id(final int position)
+        {
+            return ids[position];
+        }
+
+        /*
+         * Returns the slot of a gram, claiming an empty one if it is new and
+         * doubling the table once it is half full.
+         */
+        private int insert(final long gram)
+        {
+            int slot;
+
+            slot = probe(slots, gram);
+            if(slots[slot] == EMPTY)
+            {
+                if((size + 1) * 2 > slots.length)
+                {
+                    grow();
+                    slot = probe(slots, gram);
+                }
+                slots[slot] = gram;
+                size++;
+            }
+
+            return slot;
+        }
+
+        /*
+         * Doubles the table, moving every gram with its count and last id.
+         */
+        private void grow()
+        {
+            final long[] oldSlots;
+            final int[]  oldCounts;
+            final int[]  oldLastIds;
+
+            oldSlots   = slots;
+            oldCounts  = counts;
+            oldLastIds = lastIds;
+            slots      = emptySlots(oldSlots.length * 2);
+            counts     = new int[slots.length];
+            lastIds    = new int[slots.length];
+            Arrays.fill(lastIds, -1);
+
+            for(int old = 0; old < oldSlots.length; old++)
+            {
+                if(oldSlots[old] != EMPTY)
+                {
+                    final int slot;
+
+                    slot          = probe(slots, oldSlots[old]);
+                    slots[slot]   = oldSlots[old];
+                    counts[slot]  = oldCounts[old];
+                    lastIds[slot] = oldLastIds[old];
+                }
+            }
+        }
+
+        /*
+         * Finds the slot holding a gram, or the empty slot where it belongs.
+         */
+        private static int probe(final long[] slots,
+                                 final long gram)
+        {
+            final int mask;
+            int       slot;
+
+            mask = slots.length - 1;
+            slot = (int) (gram * 0x9E3779B97F4A7C15L >>> 32) & mask;
+            while(slots[slot] != EMPTY && slots[slot] != gram)
+            {
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+
+        /*
+         * Creates a table with every slot empty.
+         */
+        private static long[] emptySlots(final int size)
+        {
+            final long[] slots;
+
+            slots = new long[size];
+            Arrays.fill(slots, EMPTY);
+
+            return slots;
+        }
+    }
+}
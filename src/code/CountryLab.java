@@ -1,6 +1,10 @@
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32C;
+import java.util.stream.Collector;
 import java.util.stream.Stream;
 
 
@@ -15,513 +19,488 @@ import java.util.stream.Stream;
  */
 public class CountryLab
 {
-    private static final int LONG_COUNTRY_NAME_MIN_LENGTH  = 10;
-    private static final int SHORT_COUNTRY_NAME_MAX_LENGTH        = 5;
-    private static final int COUNTRY_ENDS_WITH_LAND_MIN_LENGTH      = 4;
-    private static final int COUNTRY_ENDS_WITH_LAND_INDEX_OFFSET = 4;
-    private static final int COUNTRY_NAMES_MIN_LENGTH_3       = 3;
+    private static final String PARTS_SUFFIX     = ".parts";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int    BUFFER_SIZE      = 1 << 16;
 
     /**
      * Main entry point for the program. Reads country names from a file,
-     * ensures output directories exist, and calls methods to process
-     * and write filtered data.
+     * ensures output directories exist, computes the selected report
+     * sections in one pass and writes them to the output file. In watch
+     * mode the program then keeps running and writes the report again
+     * whenever the country file changes. In batch mode a report is
+     * written for each of many country files instead, and in serve mode
+     * the sections are served over HTTP instead of written.
      *
-     * @param args Command-line arguments (not used).
+     * @param args Command-line options, see {@link CountryLabOptions}.
      * @throws IOException If an error occurs while reading or writing files.
      */
     public static void main(final String[] args) throws IOException
     {
-        final Path countriesPath;
-        final Path matchesPath;
-        final Path dataPath;
-
-        final List<String> countriesList;
+        final CountryLabOptions options;
+        final ReportEngine      engine;
+        final ReportMetrics     metrics;
 
-        countriesPath = Paths.get("src", "res", "week8countries.txt");
-        if(Files.notExists(countriesPath))
-        {
-            throw new IOException("File not found.");
-        }
+        options = CountryLabOptions.parse(args);
+        engine  = new ReportEngine(Reports.select(options.getSections(),
+                                                  options.getReportSettings()));
+        metrics = options.getMetricsPath() == null ? null : new ReportMetrics(options.getMetricsPath());
 
-        matchesPath = Paths.get("src", "res", "matches");
-        if(Files.notExists(matchesPath))
+        try
         {
-            Files.createDirectory(matchesPath);
+            run(options, engine, metrics);
         }
-
-        dataPath = Paths.get("src", "res", "matches", "data.txt");
-        if(Files.notExists(dataPath))
+        finally
         {
-            Files.createFile(dataPath);
+            if(metrics != null)
+            {
+                metrics.close();
+            }
         }
-
-        countriesList = Files.readAllLines(countriesPath);
-
-        writeLongCountryNames(countriesList, dataPath);
-        writeShortCountryNames(countriesList, dataPath);
-        writeCountriesStartingWithA(countriesList,
-                                    dataPath);
-        writeCountriesEndingWithLand(countriesList,
-                                     dataPath);
-        writeCountriesThatContainUnited(countriesList,
-                                        dataPath);
-        writeCountriesInAscendingOrder(countriesList,
-                                       dataPath);
-        writeCountriesInDescendingOrder(countriesList,
-                                        dataPath);
-        writeUniqueFirstLetters(countriesList,
-                                dataPath);
-        writeCountOfCountries(countriesList,
-                              dataPath);
-        writeLongestCountryName(countriesList,
-                                dataPath);
-        writeShortestCountryName(countriesList,
-                                dataPath);
-        writeCountriesInUpper(countriesList,
-                                dataPath);
-        writeCountriesToCharacterCount(countriesList,
-                                dataPath);
-        writeCountriesWithMoreThanOneWord(countriesList,
-                                          dataPath);
-        writeTrueIfNameStartsWithZ(countriesList,
-                                   dataPath);
-        writeAllNamesLongerThan3(countriesList,
-                                 dataPath);
     }
 
     /*
-     * Filters a list of country names by removing null and blank entries.
-     *
-     * @param list List of country names.
-     * @return A stream of filtered country names.
+     * Writes the report once, then again on every change in watch mode, or
+     * writes every report of a batch.
      */
-    private static Stream<String> filteredStream(final List<String> list)
+    private static void run(final CountryLabOptions options,
+                            final ReportEngine engine,
+                            final ReportMetrics metrics) throws IOException
     {
-        final Stream<String> filteredStream;
+        if(options.getBatchInputs() != null)
+        {
+            generateBatch(options, engine, metrics);
+            return;
+        }
 
-        filteredStream = list.stream()
-                .filter(Objects::nonNull)
-                .filter(country->!country.isBlank());
+        if(options.getServePort() >= 0)
+        {
+            serve(options, engine);
+            return;
+        }
 
-        return filteredStream;
+        generate(options.getCountriesPath(), options.getDataPath(), options, engine, metrics);
+
+        if(options.isWatch())
+        {
+            try(final CountryWatcher watcher = new CountryWatcher(options.getCountriesPath(),
+                                                                  options.getWatchDebounceMillis(),
+                                                                  ()->generate(options.getCountriesPath(),
+                                                                               options.getDataPath(),
+                                                                               options,
+                                                                               engine,
+                                                                               metrics)))
+            {
+                watcher.watch();
+            }
+            catch(final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     /*
-     * Writes country names longer than 10 characters to the output file.
+     * Serves the sections over HTTP until interrupted, collecting them
+     * again whenever the country file changes.
      */
-    private static void writeLongCountryNames(final List<String> countriesList,
-                                              final Path dataPath)
+    private static void serve(final CountryLabOptions options,
+                              final ReportEngine engine) throws IOException
     {
-        final List<String> longCountryNames;
+        final Path countriesPath;
 
-        longCountryNames = filteredStream(countriesList)
-                .filter(country-> country.length() > LONG_COUNTRY_NAME_MIN_LENGTH)
-                .toList();
-        try
+        countriesPath = options.getCountriesPath();
+        if(Files.notExists(countriesPath))
+        {
+            throw new IOException("File not found.");
+        }
+
+        try(final QueryServer server = new QueryServer(options.getServePort(),
+                                                       options.getCacheBytes(),
+                                                       ()->collect(countriesPath, options, engine));
+            final CountryWatcher watcher = new CountryWatcher(countriesPath,
+                                                              options.getWatchDebounceMillis(),
+                                                              server::reload))
         {
-            Files.writeString(dataPath,
-                              "Country names longer than 10 characters:\n",
-                              StandardOpenOption.TRUNCATE_EXISTING);
-            Files.write(dataPath,
-                        longCountryNames,
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.APPEND);
+            server.start();
+            System.out.println("Serving report sections on http://localhost:" + server.getPort() + "/sections");
+            watcher.watch();
         }
-        catch(final IOException e)
+        catch(final InterruptedException e)
         {
-            e.printStackTrace();
+            Thread.currentThread().interrupt();
         }
     }
 
     /*
-     * Writes country names shorter than 5 characters to the output file.
+     * Writes a report for every country file of the batch, each on its own
+     * virtual thread, into the directory of the output file. When metrics
+     * are recorded the inputs run on platform threads instead, since the
+     * allocation counters cannot be read on virtual threads.
      */
-    private static void writeShortCountryNames(final List<String> countriesList,
-                                               final Path dataPath)
+    private static void generateBatch(final CountryLabOptions options,
+                                      final ReportEngine engine,
+                                      final ReportMetrics metrics) throws IOException
     {
-        final List<String> shortCountryNames;
+        final BatchRunner runner;
 
-        shortCountryNames = filteredStream(countriesList)
-                .filter(country-> country.length() < SHORT_COUNTRY_NAME_MAX_LENGTH)
-                .toList();
+        runner = new BatchRunner(options.getDataPath().toAbsolutePath().getParent(),
+                                 options.getBatchConcurrency(),
+                                 metrics == null ? Thread.ofVirtual().factory() : Thread.ofPlatform().factory(),
+                                 (countriesPath, dataPath)->generate(countriesPath, dataPath, options, engine, metrics));
         try
         {
-            Files.writeString(dataPath,
-                              "\n-----Country names shorter than 5 characters-----\n",
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-            Files.write(dataPath,
-                        shortCountryNames,
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.APPEND);
+            runner.run(options.getBatchInputs());
         }
-        catch(final IOException e)
+        catch(final InterruptedException e)
         {
-            e.printStackTrace();
+            Thread.currentThread().interrupt();
         }
     }
 
     /*
-     * Writes country names that start with 'A' to the output file.
+     * Reads a country file and writes its report, compressed if configured
+     * and split into one file per section if configured. The report is
+     * written to a temporary file that is then moved over the output file,
+     * so readers never see a partly written report. With checkpointing the
+     * sections are written to part files instead. When metrics are given,
+     * the shared pass and every section are measured.
      */
-    private static void writeCountriesStartingWithA(final List<String> countriesList,
-                                                    final Path dataPath)
+    private static void generate(final Path countriesPath,
+                                 final Path dataPath,
+                                 final CountryLabOptions options,
+                                 final ReportEngine engine,
+                                 final ReportMetrics metrics) throws IOException
     {
-        final List<String> startsWithA = filteredStream(countriesList)
-                .filter(country->country.startsWith("A"))
-                .toList();
-        try
+        final Path            matchesPath;
+        final Map<Path, Path> published;
+
+        if(Files.notExists(countriesPath))
         {
-            Files.writeString(dataPath,
-                              "\nCountry names starting with 'A':\n",
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-            Files.write(dataPath,
-                        startsWithA,
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.APPEND);
+            throw new IOException("File not found.");
         }
-        catch(final IOException e)
+
+        matchesPath = dataPath.toAbsolutePath().getParent();
+        if(Files.notExists(matchesPath))
         {
-            e.printStackTrace();
+            Files.createDirectories(matchesPath);
         }
-    }
 
-    /*
-     * Writes country names that end with "land" to the output file.
-     */
-    private static void writeCountriesEndingWithLand(final List<String> countriesList,
-                                                     final Path dataPath)
-    {
-        final List<String> endsWithLand = filteredStream(countriesList)
-                .filter(country->
-                    country.length() > COUNTRY_ENDS_WITH_LAND_MIN_LENGTH &&
-                            country.substring(country.length() - 
-                                              COUNTRY_ENDS_WITH_LAND_INDEX_OFFSET)
-                                    .equalsIgnoreCase("land")
-                        )
-                .toList();
-        try
+        if(options.isCheckpoint())
         {
-            Files.writeString(dataPath,
-                              "\n-----Country that end with \"land\"-----\n",
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-            Files.write(dataPath,
-                        endsWithLand,
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.APPEND);
+            generateCheckpointed(countriesPath, dataPath, options, engine, metrics);
+            return;
         }
-        catch(final IOException e)
+
+        published = new LinkedHashMap<>();
+        try
         {
-            e.printStackTrace();
+            try(final ReportResults results = collectMeasured(countriesPath, options, engine, metrics))
+            {
+                if(options.isSplitSections())
+                {
+                    for(final Report<?> report : results.getReports())
+                    {
+                        final Path temporaryPath;
+
+                        temporaryPath = temporaryPath(options.getCompression().resolve(sectionPath(dataPath, report)),
+                                                      published);
+                        try(final ReportWriter writer = openWriter(temporaryPath, options))
+                        {
+                            results.writeSection(report, writer, countriesPath.toString(), metrics);
+                        }
+                    }
+                }
+                else
+                {
+                    try(final ReportWriter writer = openWriter(temporaryPath(options.getCompression().resolve(dataPath),
+                                                                             published),
+                                                               options))
+                    {
+                        for(final Report<?> report : results.getReports())
+                        {
+                            results.writeSection(report, writer, countriesPath.toString(), metrics);
+                        }
+                    }
+                }
+            }
+
+            for(final Map.Entry<Path, Path> entry : published.entrySet())
+            {
+                Files.move(entry.getKey(), entry.getValue(),
+                           StandardCopyOption.REPLACE_EXISTING,
+                           StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        finally
+        {
+            for(final Path temporaryPath : published.keySet())
+            {
+                Files.deleteIfExists(temporaryPath);
+            }
         }
     }
 
     /*
-     * Writes country names containing "United" to the output file.
+     * Writes each section to a checkpointed part file next to the output
+     * file, so a run that fails is resumed from its last completed section,
+     * and publishes the report once every section is written. The names
+     * are only collected if some section is still missing.
      */
-    private static void writeCountriesThatContainUnited(final List<String> countriesList,
-                                                        final Path dataPath)
+    private static void generateCheckpointed(final Path countriesPath,
+                                             final Path dataPath,
+                                             final CountryLabOptions options,
+                                             final ReportEngine engine,
+                                             final ReportMetrics metrics) throws IOException
     {
-        final List<String> containsUnited = filteredStream(countriesList)
-                .filter(country->country.contains("United"))
+        final List<String>     sections;
+        final ReportCheckpoint checkpoint;
+
+        sections = engine.getReports()
+                .stream()
+                .map(Report::getName)
                 .toList();
-        try
-        {
-            Files.writeString(dataPath,
-                              "\n-----Countries that contain \"United\"-----\n",
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-            Files.write(dataPath,
-                        containsUnited,
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.APPEND);
-        }
-        catch(final IOException e)
+        checkpoint = new ReportCheckpoint(dataPath.resolveSibling(dataPath.getFileName() + PARTS_SUFFIX),
+                                          runKey(countriesPath, sections, options));
+
+        if(!checkpoint.isComplete(sections))
         {
-            e.printStackTrace();
+            try(final ReportResults results = collectMeasured(countriesPath, options, engine, metrics))
+            {
+                for(final Report<?> report : results.getReports())
+                {
+                    if(!checkpoint.isComplete(report.getName()))
+                    {
+                        checkpoint.write(report.getName(),
+                                         out->
+                                         {
+                                             try(final ReportWriter writer = new ReportWriter(
+                                                     options.getCompression().wrap(out, options.getCompressionLevel())))
+                                             {
+                                                 results.writeSection(report, writer, countriesPath.toString(), metrics);
+                                             }
+                                         });
+                    }
+                }
+            }
         }
-    }
 
-    /*
-     * Writes country names in ascending order to the output file.
-     */
-    private static void writeCountriesInAscendingOrder(final List<String> countriesList,
-                                                       final Path dataPath)
-    {
-        final List<String> ascendingOrder = filteredStream(countriesList)
-                .sorted()
-                .toList();
-        try
+        if(options.isSplitSections())
         {
-            Files.writeString(dataPath,
-                              "\n------Countries in ascending order-----\n",
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-            Files.write(dataPath,
-                        ascendingOrder,
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.APPEND);
+            final Map<String, Path> outputPaths;
+
+            outputPaths = new LinkedHashMap<>();
+            for(final Report<?> report : engine.getReports())
+            {
+                outputPaths.put(report.getName(), options.getCompression().resolve(sectionPath(dataPath, report)));
+            }
+            checkpoint.publishEach(outputPaths);
         }
-        catch(final IOException e)
+        else
         {
-            e.printStackTrace();
+            checkpoint.publish(sections, options.getCompression().resolve(dataPath));
         }
+
+        checkpoint.delete();
     }
 
     /*
-     * Writes country names in descending order to the output file.
+     * Creates a uniquely named temporary file next to an output file and
+     * records it as the file to move over the output once it is written.
      */
-    private static void writeCountriesInDescendingOrder(final List<String> countriesList,
-                                                        final Path dataPath) throws IOException
+    private static Path temporaryPath(final Path outputPath,
+                                      final Map<Path, Path> published) throws IOException
     {
-        final List<String> descendingOrder = filteredStream(countriesList)
-                .sorted(Comparator.comparing(String::toString).reversed())
-                .toList();
-        try
-        {
-            Files.writeString(dataPath,
-                              "\n------Countries in descending order-----\n",
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-            Files.write(dataPath,
-                        descendingOrder,
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.APPEND);
-        }
-        catch(final IOException e)
-        {
-            e.printStackTrace();
-        }
+        final Path temporaryPath;
+
+        temporaryPath = Files.createTempFile(outputPath.toAbsolutePath().getParent(),
+                                             outputPath.getFileName() + ".",
+                                             TEMPORARY_SUFFIX);
+        published.put(temporaryPath, outputPath);
+
+        return temporaryPath;
     }
 
     /*
-     * Writes unique first letters of country names to the output file.
+     * Opens a report writer on a file, compressed if configured.
      */
-    private static void writeUniqueFirstLetters(final List<String> countriesList,
-                                                final Path dataPath)
+    private static ReportWriter openWriter(final Path path,
+                                           final CountryLabOptions options) throws IOException
     {
-        final List<String> uniqueFirstLetters = filteredStream(countriesList)
-                .map(country->country.substring(0, 1))
-                .distinct()
-                .toList();
-        try
-        {
-            Files.writeString(dataPath,
-                              "\n------Unique first letters of countries-----\n",
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-            Files.write(dataPath,
-                        uniqueFirstLetters,
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.APPEND);
-        }
-        catch(final IOException e)
-        {
-            e.printStackTrace();
-        }
+        return new ReportWriter(options.getCompression().wrap(Files.newOutputStream(path,
+                                                                                    StandardOpenOption.CREATE,
+                                                                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                                                                    StandardOpenOption.WRITE),
+                                                              options.getCompressionLevel()));
     }
 
     /*
-     * Writes the total count of countries to the output file.
+     * Collects every section, recording what the shared pass cost when
+     * metrics are given.
      */
-    private static void writeCountOfCountries(final List<String> countriesList,
-                                              final Path dataPath)
+    private static ReportResults collectMeasured(final Path countriesPath,
+                                                 final CountryLabOptions options,
+                                                 final ReportEngine engine,
+                                                 final ReportMetrics metrics) throws IOException
     {
-        final long countOfCountries = filteredStream(countriesList)
-                .count();
+        final ReportMetrics.Snapshot start;
+        final ReportResults          results;
 
-        try
-        {
-            Files.writeString(dataPath,
-                              "\n------Count of countries-----\n" +
-                              countOfCountries,
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-        }
-        catch(final IOException e)
+        start   = ReportMetrics.start(options.getThreads() > 1);
+        results = collect(countriesPath, options, engine);
+
+        if(metrics != null)
         {
-            e.printStackTrace();
+            metrics.record(new SectionMetrics(countriesPath.toString(),
+                                              "collect",
+                                              null,
+                                              start.elapsedNanos(),
+                                              results.getRowsScanned(),
+                                              0,
+                                              0,
+                                              start.allocatedBytesSince()));
         }
+
+        return results;
     }
 
     /*
-     * Writes the longest country name(s) to the output file.
+     * Describes everything a checkpointed part depends on: the country
+     * file's size, modification time and content checksum, the sections,
+     * the report settings and the output encoding. The checksum catches
+     * edits that keep the file's size within one modification time tick.
      */
-    private static void writeLongestCountryName(final List<String> countriesList,
-                                              final Path dataPath)
+    private static String runKey(final Path countriesPath,
+                                 final List<String> sections,
+                                 final CountryLabOptions options) throws IOException
     {
-        final int longestCountryNameLength = filteredStream(countriesList)
-                .mapToInt(String::length)
-                .max()
-                .getAsInt();
-
-        final List<String> longestCountryName = filteredStream(countriesList)
-                .filter(country->country.length() == longestCountryNameLength)
-                .toList();
-        try
-        {
-            Files.writeString(dataPath,
-                              "\n------Longest country names-----\n" +
-                              longestCountryName,
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-        }
-        catch(final IOException e)
-        {
-            e.printStackTrace();
-        }
+        return String.join("|",
+                           countriesPath.toAbsolutePath().toString(),
+                           String.valueOf(Files.size(countriesPath)),
+                           String.valueOf(Files.getLastModifiedTime(countriesPath).toMillis()),
+                           Long.toHexString(checksum(countriesPath)),
+                           String.join(",", sections),
+                           options.getReportSettings().toString(),
+                           options.getCompression().toString(),
+                           String.valueOf(options.getCompressionLevel()));
     }
 
     /*
-     * Writes the shortest country name(s) to the output file.
+     * Computes the CRC-32C checksum of a file's content.
      */
-    private static void writeShortestCountryName(final List<String> countriesList,
-                                                final Path dataPath)
+    private static long checksum(final Path path) throws IOException
     {
-        final int shortestCountryNameLength = filteredStream(countriesList)
-                .mapToInt(String::length)
-                .min()
-                .getAsInt();
+        final CRC32C checksum;
+        final byte[] buffer;
 
-        final List<String> longestCountryName = filteredStream(countriesList)
-                .filter(country->country.length() == shortestCountryNameLength)
-                .toList();
-        try
-        {
-            Files.writeString(dataPath,
-                              "\n------Shortest country names-----\n" +
-                              longestCountryName,
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-        }
-        catch(final IOException e)
+        checksum = new CRC32C();
+        buffer   = new byte[BUFFER_SIZE];
+        try(final InputStream in = Files.newInputStream(path))
         {
-            e.printStackTrace();
+            int read;
+
+            while((read = in.read(buffer)) > 0)
+            {
+                checksum.update(buffer, 0, read);
+            }
         }
+
+        return checksum.getValue();
     }
 
     /*
-     * Writes country names in uppercase to the output file.
+     * Returns the uncompressed path of one section's file.
      */
-    private static void writeCountriesInUpper(final List<String> countriesList,
-                                              final Path dataPath)
+    private static Path sectionPath(final Path dataPath,
+                                    final Report<?> report)
     {
-        final List<String> countriesInUpper = filteredStream(countriesList)
-                .map(String::toUpperCase)
-                .toList();
-        try
-        {
-            Files.writeString(dataPath,
-                              "\n------Countries in uppercase-----\n" +
-                              countriesInUpper,
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-        }
-        catch(final IOException e)
+        final String fileName;
+        final int    extension;
+
+        fileName  = dataPath.getFileName().toString();
+        extension = fileName.lastIndexOf('.');
+        if(extension > 0)
         {
-            e.printStackTrace();
+            return dataPath.resolveSibling(fileName.substring(0, extension) + "-" + report.getName() +
+                                           fileName.substring(extension));
         }
+
+        return dataPath.resolveSibling(fileName + "-" + report.getName());
     }
 
     /*
-     * Writes country names that have more than one word to the output file.
+     * Reads the country file and collects every section.
      */
-    private static void writeCountriesWithMoreThanOneWord(final List<String> countriesList,
-                                                          final Path dataPath)
+    private static ReportResults collect(final Path countriesPath,
+                                         final CountryLabOptions options,
+                                         final ReportEngine engine) throws IOException
     {
-        final List<String> countriesWithMoreThanOneWord = filteredStream(countriesList)
-                .filter(country->country.trim().contains(" "))
-                .toList();
-        try
-        {
-            Files.writeString(dataPath,
-                              "\n------Countries with more than one word------\n",
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-            Files.write(dataPath,
-                        countriesWithMoreThanOneWord,
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.APPEND);
-        }
-        catch(IOException e)
+        try(final Stream<String> lines = lines(countriesPath, options.getInputMode()))
         {
-            e.printStackTrace();
+            return buildReport(lines, engine, options.getThreads());
         }
     }
 
     /*
-     * Writes country names along with their character counts to the output file.
+     * Opens the lines of the country file using the requested input mode.
      */
-    private static void writeCountriesToCharacterCount(final List<String> countriesList,
-                                                       final Path dataPath)
+    private static Stream<String> lines(final Path countriesPath,
+                                        final InputMode inputMode) throws IOException
     {
-        final List<String> countriesWithCharacterCount = filteredStream(countriesList)
-                .map(country->country + ": " + country.length())
-                .toList();
-        try
-        {
-            Files.writeString(dataPath,
-                              "\n------Countries with their character counts-----\n",
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-            Files.write(dataPath,
-                        countriesWithCharacterCount,
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.APPEND);
-        }
-        catch(final IOException e)
+        return switch(inputMode)
         {
-            e.printStackTrace();
-        }
+            case LINES  -> Files.lines(countriesPath);
+            case MAPPED -> MappedLineSpliterator.lines(countriesPath);
+        };
     }
 
     /*
-     * Writes whether there is a country name that starts with 'Z' to the file.
+     * Runs every section of the engine in one pass over the lines. With
+     * more than one thread the lines are split into line-aligned chunks
+     * that are processed on a dedicated ForkJoin pool and merged back in
+     * input order.
      */
-    private static void writeTrueIfNameStartsWithZ(final List<String> countriesList,
-                                                   final Path dataPath)
+    private static ReportResults buildReport(final Stream<String> lines,
+                                             final ReportEngine engine,
+                                             final int threads)
     {
-        final boolean countryStartsWithZ = filteredStream(countriesList)
-                .anyMatch(country->country.startsWith("Z"));
+        final Collector<String, ?, ReportResults> collector;
+        final ForkJoinPool                        pool;
+
+        collector = engine.collector();
 
+        if(threads <= 1)
+        {
+            return filteredStream(lines).collect(collector);
+        }
+
+        pool = new ForkJoinPool(threads);
         try
         {
-            Files.writeString(dataPath,
-                              "\n------Country starts with Z-----\n" +
-                              countryStartsWithZ,
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
+            return pool.submit(()->filteredStream(lines.parallel())
+                            .collect(collector))
+                    .join();
         }
-        catch(IOException e)
+        finally
         {
-            e.printStackTrace();
+            pool.shutdown();
         }
-
     }
 
     /*
-     * Writes whether all country names are longer than 3 characters to the file.
+     * Filters a stream of country names by removing null and blank entries.
+     *
+     * @param countries Stream of country names.
+     * @return A stream of filtered country names.
      */
-    private static void writeAllNamesLongerThan3(final List<String> countriesList,
-                                                 final Path dataPath)
+    private static Stream<String> filteredStream(final Stream<String> countries)
     {
-        final boolean allNamesLongerThan3 = filteredStream(countriesList)
-                .allMatch(country->country.length()>COUNTRY_NAMES_MIN_LENGTH_3);
+        final Stream<String> filteredStream;
 
-        try
-        {
-            Files.writeString(dataPath,
-                              "\n-----All countries longer than 3------\n" +
-                              allNamesLongerThan3,
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-        }
-        catch(IOException e)
-        {
-            e.printStackTrace();
-        }
+        filteredStream = countries
+                .filter(Objects::nonNull)
+                .filter(country->!country.isBlank());
+
+        return filteredStream;
     }
 }
-
@@ -0,0 +1,448 @@
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.Deflater;
+
+
+/**
+ * Command-line options for {@link CountryLab}. Every option has the form
+ * {@code --name=value}; options that are not given keep their defaults.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class CountryLabOptions
+{
+    private static final String OPTION_PREFIX           = "--";
+    private static final char   VALUE_SEPARATOR         = '=';
+    private static final long   BYTES_PER_MB            = 1024L * 1024L;
+    private static final long   DEFAULT_DEBOUNCE_MILLIS = 500;
+    private static final int    NO_SERVER               = -1;
+    private static final int    MAX_PORT                = 65535;
+    private static final long   DEFAULT_CACHE_MB        = 64;
+
+    private Path         countriesPath;
+    private Path         dataPath;
+    private InputMode    inputMode;
+    private int          threads;
+    private long         sortMemoryBudget;
+    private List<String> sections;
+    private boolean      watch;
+    private long         watchDebounceMillis;
+    private int          longNameMinLength;
+    private int          shortNameMaxLength;
+    private int          minNameLength;
+    private String       batchInputs;
+    private int          batchConcurrency;
+    private Path         metricsPath;
+    private MatchMode    matchMode;
+    private int          topCount;
+    private int          minWordCount;
+
+    private OutputCompression compression;
+    private int               compressionLevel;
+    private boolean           splitSections;
+    private boolean           checkpoint;
+
+    private int  serverPort;
+    private long cacheBytes;
+
+    /*
+     * Creates the default options.
+     */
+    private CountryLabOptions()
+    {
+        countriesPath = Paths.get("src", "res", "week8countries.txt");
+        dataPath      = Paths.get("src", "res", "matches", "data.txt");
+        inputMode     = InputMode.LINES;
+        threads       = 1;
+
+        sortMemoryBudget = ExternalSorter.UNLIMITED_BUDGET;
+        sections         = List.of();
+
+        watch               = false;
+        watchDebounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+
+        longNameMinLength  = Reports.LONG_COUNTRY_NAME_MIN_LENGTH;
+        shortNameMaxLength = Reports.SHORT_COUNTRY_NAME_MAX_LENGTH;
+        minNameLength      = Reports.COUNTRY_NAMES_MIN_LENGTH_3;
+
+        batchInputs      = null;
+        batchConcurrency = Runtime.getRuntime().availableProcessors();
+        metricsPath      = null;
+        matchMode        = null;
+        topCount         = Reports.TOP_COUNT;
+        minWordCount     = Reports.MIN_WORD_COUNT;
+
+        compression      = OutputCompression.NONE;
+        compressionLevel = OutputCompression.DEFAULT_LEVEL;
+        splitSections    = false;
+        checkpoint       = false;
+
+        serverPort = NO_SERVER;
+        cacheBytes = DEFAULT_CACHE_MB * BYTES_PER_MB;
+    }
+
+    /**
+     * Parses the command-line arguments.
+     *
+     * @param args The arguments passed to main, may be null.
+     * @return The parsed options.
+     * @throws IllegalArgumentException If an argument is not recognized.
+     */
+    public static CountryLabOptions parse(final String[] args)
+    {
+        final CountryLabOptions options;
+
+        options = new CountryLabOptions();
+
+        if(args == null)
+        {
+            return options;
+        }
+
+        for(final String arg : args)
+        {
+            final int    separator;
+            final String name;
+            final String value;
+
+            separator = arg.indexOf(VALUE_SEPARATOR);
+            if(!arg.startsWith(OPTION_PREFIX) || separator < 0)
+            {
+                throw new IllegalArgumentException("Invalid argument: " + arg);
+            }
+
+            name  = arg.substring(OPTION_PREFIX.length(), separator);
+            value = arg.substring(separator + 1);
+
+            switch(name)
+            {
+                case "countries-file"    -> options.countriesPath       = Paths.get(value);
+                case "output-file"       -> options.dataPath            = Paths.get(value);
+                case "input"             -> options.inputMode           = InputMode.valueOf(value.toUpperCase(Locale.ROOT));
+                case "threads"           -> options.threads             = parseThreads(value);
+                case "sort-memory-mb"    -> options.sortMemoryBudget    = parseSortMemoryBudget(value);
+                case "sections"          -> options.sections            = List.of(value.split(","));
+                case "watch"             -> options.watch               = Boolean.parseBoolean(value);
+                case "watch-debounce-ms" -> options.watchDebounceMillis = parseDebounceMillis(value);
+                case "long-name-length"  -> options.longNameMinLength   = parseLength(value);
+                case "short-name-length" -> options.shortNameMaxLength  = parseLength(value);
+                case "min-name-length"   -> options.minNameLength       = parseLength(value);
+                case "batch"             -> options.batchInputs         = value;
+                case "batch-concurrency" -> options.batchConcurrency    = parseThreads(value);
+                case "metrics-file"      -> options.metricsPath         = Paths.get(value);
+                case "match"             -> options.matchMode           = MatchMode.parse(value);
+                case "top-count"         -> options.topCount            = parseLength(value);
+                case "min-words"         -> options.minWordCount        = parseLength(value);
+                case "compression"       -> options.compression         = OutputCompression.valueOf(value.toUpperCase(Locale.ROOT));
+                case "compression-level" -> options.compressionLevel    = parseCompressionLevel(value);
+                case "split-sections"    -> options.splitSections       = Boolean.parseBoolean(value);
+                case "checkpoint"        -> options.checkpoint          = Boolean.parseBoolean(value);
+                case "serve"             -> options.serverPort          = parsePort(value);
+                case "cache-mb"          -> options.cacheBytes          = parseCacheBytes(value);
+                default                  -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        if(options.batchInputs != null && options.watch)
+        {
+            throw new IllegalArgumentException("--batch cannot be combined with --watch");
+        }
+
+        if(options.serverPort != NO_SERVER && (options.batchInputs != null || options.watch))
+        {
+            throw new IllegalArgumentException("--serve cannot be combined with --batch or --watch");
+        }
+
+        return options;
+    }
+
+    /*
+     * Parses the thread count, where 0 stands for every available core.
+     */
+    private static int parseThreads(final String value)
+    {
+        final int threads;
+
+        threads = Integer.parseInt(value);
+        if(threads < 0)
+        {
+            throw new IllegalArgumentException("Thread count must not be negative: " + value);
+        }
+
+        if(threads == 0)
+        {
+            return Runtime.getRuntime().availableProcessors();
+        }
+
+        return threads;
+    }
+
+    /*
+     * Parses the sort memory budget, given in megabytes.
+     */
+    private static long parseSortMemoryBudget(final String value)
+    {
+        final long megabytes;
+
+        megabytes = Long.parseLong(value);
+        if(megabytes <= 0)
+        {
+            throw new IllegalArgumentException("Sort memory must be positive: " + value);
+        }
+
+        return Math.multiplyExact(megabytes, BYTES_PER_MB);
+    }
+
+    /*
+     * Parses the watch debounce delay, in milliseconds.
+     */
+    private static long parseDebounceMillis(final String value)
+    {
+        final long millis;
+
+        millis = Long.parseLong(value);
+        if(millis < 0)
+        {
+            throw new IllegalArgumentException("Debounce delay must not be negative: " + value);
+        }
+
+        return millis;
+    }
+
+    /*
+     * Parses a name length threshold or a number of names.
+     */
+    private static int parseLength(final String value)
+    {
+        final int length;
+
+        length = Integer.parseInt(value);
+        if(length < 0)
+        {
+            throw new IllegalArgumentException("Length must not be negative: " + value);
+        }
+
+        return length;
+    }
+
+    /*
+     * Parses the server port, where 0 stands for any free port.
+     */
+    private static int parsePort(final String value)
+    {
+        final int port;
+
+        port = Integer.parseInt(value);
+        if(port < 0 || port > MAX_PORT)
+        {
+            throw new IllegalArgumentException("Port must be between 0 and " + MAX_PORT + ": " + value);
+        }
+
+        return port;
+    }
+
+    /*
+     * Parses the size of the server's page cache, given in megabytes.
+     */
+    private static long parseCacheBytes(final String value)
+    {
+        final long megabytes;
+
+        megabytes = Long.parseLong(value);
+        if(megabytes <= 0)
+        {
+            throw new IllegalArgumentException("Cache size must be positive: " + value);
+        }
+
+        return Math.multiplyExact(megabytes, BYTES_PER_MB);
+    }
+
+    /*
+     * Parses a compression level, from 0 for none to 9 for the smallest
+     * output.
+     */
+    private static int parseCompressionLevel(final String value)
+    {
+        final int level;
+
+        level = Integer.parseInt(value);
+        if(level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)
+        {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9: " + value);
+        }
+
+        return level;
+    }
+
+    /**
+     * @return The country file to read.
+     */
+    public Path getCountriesPath()
+    {
+        return countriesPath;
+    }
+
+    /**
+     * @return The report file to write.
+     */
+    public Path getDataPath()
+    {
+        return dataPath;
+    }
+
+    /**
+     * @return How the country file is read.
+     */
+    public InputMode getInputMode()
+    {
+        return inputMode;
+    }
+
+    /**
+     * @return The number of threads used to build the report; 1 means the
+     *         input is processed sequentially.
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * @return The estimated bytes of names the sorted sections may keep in
+     *         memory before spilling sorted runs to temporary files. The
+     *         budget is shared: it bounds the names buffered by every
+     *         chunk of a parallel run together, and by every file of a
+     *         batch run together, not each of them.
+     */
+    public long getSortMemoryBudget()
+    {
+        return sortMemoryBudget;
+    }
+
+    /**
+     * @return The names of the report sections to write, in any order; an
+     *         empty list selects every section.
+     */
+    public List<String> getSections()
+    {
+        return sections;
+    }
+
+    /**
+     * @return true if the program keeps running and writes the report
+     *         again whenever the country file changes.
+     */
+    public boolean isWatch()
+    {
+        return watch;
+    }
+
+    /**
+     * @return How long the country file must stay unchanged, in
+     *         milliseconds, before the report is written again.
+     */
+    public long getWatchDebounceMillis()
+    {
+        return watchDebounceMillis;
+    }
+
+    /**
+     * @return The directory or glob naming the country files of a batch
+     *         run, or null to process the single country file. Batch
+     *         reports are written next to the output file.
+     */
+    public String getBatchInputs()
+    {
+        return batchInputs;
+    }
+
+    /**
+     * @return The most country files a batch run processes at once.
+     */
+    public int getBatchConcurrency()
+    {
+        return batchConcurrency;
+    }
+
+    /**
+     * @return The file that per-section timing and allocation metrics are
+     *         appended to as JSON lines, or null to record none.
+     */
+    public Path getMetricsPath()
+    {
+        return metricsPath;
+    }
+
+    /**
+     * @return The sorter budget, the length thresholds of the long, short
+     *         and minimum length sections, and the match mode of the text
+     *         sections, null when each keeps its own, the number of
+     *         names the top-k sections list and the fewest words of the
+     *         names the min-words section lists.
+     */
+    public ReportSettings getReportSettings()
+    {
+        return new ReportSettings(sortMemoryBudget,
+                                  longNameMinLength,
+                                  shortNameMaxLength,
+                                  minNameLength,
+                                  matchMode,
+                                  topCount,
+                                  minWordCount);
+    }
+
+    /**
+     * @return How the report files are encoded.
+     */
+    public OutputCompression getCompression()
+    {
+        return compression;
+    }
+
+    /**
+     * @return The compression level, from 0 to 9, or
+     *         {@link OutputCompression#DEFAULT_LEVEL}.
+     */
+    public int getCompressionLevel()
+    {
+        return compressionLevel;
+    }
+
+    /**
+     * @return True if each section is written to its own file next to the
+     *         output file instead of into the output file.
+     */
+    public boolean isSplitSections()
+    {
+        return splitSections;
+    }
+
+    /**
+     * @return True if the sections are written to checkpointed part files,
+     *         so a run that fails can be resumed from its last completed
+     *         section.
+     */
+    public boolean isCheckpoint()
+    {
+        return checkpoint;
+    }
+
+    /**
+     * @return The port to serve the sections on, 0 for any free port, or a
+     *         negative number to write the report instead.
+     */
+    public int getServePort()
+    {
+        return serverPort;
+    }
+
+    /**
+     * @return The most bytes of rendered pages the server keeps cached.
+     */
+    public long getCacheBytes()
+    {
+        return cacheBytes;
+    }
+}
@@ -0,0 +1,149 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Watches the country file and runs an action after it changes. Bursts of
+ * changes, such as an editor writing the file in several steps, are merged
+ * into one run: the action only starts once the file has stayed unchanged
+ * for the debounce delay.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class CountryWatcher implements Closeable
+{
+    private final Path         watchedFileName;
+    private final long         debounceMillis;
+    private final Regeneration regeneration;
+    private final WatchService watchService;
+
+    /**
+     * The work done after the watched file changes.
+     */
+    @FunctionalInterface
+    public interface Regeneration
+    {
+        /**
+         * Regenerates the output for the changed file.
+         *
+         * @throws IOException If the output cannot be regenerated.
+         */
+        void run() throws IOException;
+    }
+
+    /**
+     * Starts watching a file. Changes are only reported once
+     * {@link #watch()} is called.
+     *
+     * @param countriesPath  The file to watch.
+     * @param debounceMillis How long the file must stay unchanged before
+     *                       the action runs.
+     * @param regeneration   The action to run after a change.
+     * @throws IOException If the file's directory cannot be watched.
+     */
+    public CountryWatcher(final Path countriesPath,
+                          final long debounceMillis,
+                          final Regeneration regeneration) throws IOException
+    {
+        final Path directory;
+
+        this.debounceMillis = debounceMillis;
+        this.regeneration   = regeneration;
+
+        directory       = countriesPath.toAbsolutePath().getParent();
+        watchedFileName = countriesPath.getFileName();
+        watchService    = directory.getFileSystem().newWatchService();
+
+        directory.register(watchService,
+                           StandardWatchEventKinds.ENTRY_CREATE,
+                           StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Waits for changes and runs the action after each burst, until the
+     * watcher is closed or the thread is interrupted. A failed run is
+     * reported and the watcher keeps going.
+     *
+     * @throws InterruptedException If the thread is interrupted.
+     */
+    public void watch() throws InterruptedException
+    {
+        try
+        {
+            while(true)
+            {
+                if(!drain(watchService.take()))
+                {
+                    continue;
+                }
+
+                waitUntilQuiet();
+
+                try
+                {
+                    regeneration.run();
+                }
+                catch(final IOException | RuntimeException e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        }
+        catch(final ClosedWatchServiceException e)
+        {
+            // Closed by another thread; stop watching.
+        }
+    }
+
+    /**
+     * Stops watching the file.
+     *
+     * @throws IOException If the watch service cannot be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        watchService.close();
+    }
+
+    /*
+     * Keeps consuming events until none arrive for the debounce delay.
+     */
+    private void waitUntilQuiet() throws InterruptedException
+    {
+        WatchKey key;
+
+        key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+        while(key != null)
+        {
+            drain(key);
+            key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /*
+     * Consumes the key's events and returns true if any of them may
+     * concern the watched file.
+     */
+    private boolean drain(final WatchKey key)
+    {
+        boolean changed;
+
+        changed = false;
+        for(final WatchEvent<?> event : key.pollEvents())
+        {
+            if(event.kind() == StandardWatchEventKinds.OVERFLOW ||
+               watchedFileName.equals(event.context()))
+            {
+                changed = true;
+            }
+        }
+        key.reset();
+
+        return changed;
+    }
+}
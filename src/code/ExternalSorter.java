@@ -0,0 +1,934 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * Holds every country name so it can be replayed in input order, in
+ * ascending order and in descending order, while keeping at most a fixed
+ * number of bytes of names in memory.
+ * <p>
+ * Names are buffered, as ids of a {@link NamePool}, until the memory
+ * budget is exceeded. The buffer is then sorted once and spilled to
+ * temporary files as a run: the names in input order and the sorted
+ * names. Sorting a buffer only sorts its distinct names and repeats each
+ * one as often as it was added, so a name that occurs many times is
+ * compared as one. Sorted output is produced by a k-way merge of the runs,
+ * reading the sorted files forwards for the ascending order and backwards
+ * for the descending order, so each name is sorted and written exactly
+ * once. At most {@value #MAX_MERGE_FAN_IN} runs are merged at once; when
+ * there are more, groups of runs are first merged into longer runs. When
+ * nothing was spilled, both orders are read from one sorted array of
+ * distinct ids.
+ * <p>
+ * The budget is a {@link MemoryBudget} that may be shared by several
+ * sorters, such as the sorters of every chunk of a parallel run. A sorter
+ * spills as soon as the names buffered by all of them exceed the budget.
+ * Runs are kept in a temporary directory of this process that is deleted
+ * when the JVM exits. The directories left behind by processes that died
+ * are deleted the next time a run is spilled.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class ExternalSorter implements PooledNames<ExternalSorter>, Closeable
+{
+    /**
+     * Budget meaning the names are never spilled to disk.
+     */
+    public static final long UNLIMITED_BUDGET = Long.MAX_VALUE;
+
+    private static final int    INITIAL_CAPACITY         = 16;
+    private static final int    ESTIMATED_BYTES_PER_NAME = 48;
+    private static final int    MAX_MERGE_FAN_IN         = 64;
+    private static final int    READ_BLOCK_SIZE          = 1 << 16;
+    private static final String RUN_FILE_PREFIX          = "countries-run";
+    private static final String RUN_DIRECTORY_PREFIX     = "countries-runs-";
+    private static final char   PID_SEPARATOR            = '-';
+
+    private static Path runDirectory;
+
+    private final MemoryBudget budget;
+    private final List<Path>   inputRuns;
+    private final List<Path>   sortedRuns;
+
+    private NamePool pool;
+    private int[]    buffer;
+    private int      bufferSize;
+    private int[]    bufferCounts;
+    private long     bufferedBytes;
+    private int[]    sorted;
+
+    /**
+     * An estimated number of bytes of names that one or more sorters may
+     * keep in memory between them before spilling.
+     */
+    public static final class MemoryBudget
+    {
+        private final long       limit;
+        private final AtomicLong used;
+
+        /**
+         * Creates a budget with nothing reserved.
+         *
+         * @param limit The estimated bytes of names kept in memory.
+         */
+        public MemoryBudget(final long limit)
+        {
+            if(limit <= 0)
+            {
+                throw new IllegalArgumentException("Memory budget must be positive: " + limit);
+            }
+
+            this.limit = limit;
+
+            used = new AtomicLong();
+        }
+
+        /**
+         * @return The estimated bytes of names kept in memory.
+         */
+        public long getLimit()
+        {
+            return limit;
+        }
+
+        /**
+         * @return The estimated bytes of names currently buffered by the
+         *         sorters sharing this budget.
+         */
+        public long getUsed()
+        {
+            return used.get();
+        }
+
+        /*
+         * Reserves bytes and returns true if the budget is now exceeded.
+         */
+        private boolean reserve(final long bytes)
+        {
+            return used.addAndGet(bytes) > limit;
+        }
+
+        /*
+         * Returns bytes reserved earlier.
+         */
+        private void release(final long bytes)
+        {
+            used.addAndGet(-bytes);
+        }
+    }
+
+    /**
+     * Creates an empty sorter with a budget of its own.
+     *
+     * @param memoryBudget The estimated number of bytes of names kept in
+     *                     memory before they are spilled to disk.
+     */
+    public ExternalSorter(final long memoryBudget)
+    {
+        this(new MemoryBudget(memoryBudget));
+    }
+
+    /**
+     * Creates an empty sorter sharing a budget with other sorters.
+     *
+     * @param budget The budget shared by the sorters.
+     */
+    public ExternalSorter(final MemoryBudget budget)
+    {
+        this.budget = budget;
+
+        inputRuns     = new ArrayList<>();
+        sortedRuns    = new ArrayList<>();
+        pool          = new NamePool();
+        buffer        = new int[INITIAL_CAPACITY];
+        bufferSize    = 0;
+        bufferCounts  = new int[INITIAL_CAPACITY];
+        bufferedBytes = 0;
+        sorted        = null;
+    }
+
+    /**
+     * Adds a name after every name added so far.
+     *
+     * @param name The name to add.
+     */
+    public void add(final String name)
+    {
+        addId(pool.add(name));
+    }
+
+    /**
+     * Appends every name held by a sorter built over the names that
+     * follow this sorter's names in the input. The other sorter hands
+     * its run files over and must not be used afterwards.
+     *
+     * @param other The sorter for the following chunk of the input.
+     */
+    public void combine(final ExternalSorter other)
+    {
+        append(other, other.pool == pool ? null : pool.combine(other.pool));
+    }
+
+    @Override
+    public void usePool(final NamePool pool)
+    {
+        if(bufferSize > 0 || !inputRuns.isEmpty())
+        {
+            throw new IllegalStateException("Names were already added.");
+        }
+
+        this.pool = pool;
+    }
+
+    @Override
+    public void addId(final int id)
+    {
+        final long size;
+
+        size = estimateSize(pool.name(id));
+        if(bufferSize == buffer.length)
+        {
+            buffer = Arrays.copyOf(buffer, bufferSize * 2);
+        }
+        if(id >= bufferCounts.length)
+        {
+            bufferCounts = Arrays.copyOf(bufferCounts, Math.max(id + 1, bufferCounts.length * 2));
+        }
+        buffer[bufferSize] = id;
+        bufferSize++;
+        bufferCounts[id]++;
+        bufferedBytes += size;
+        sorted = null;
+
+        if(budget.reserve(size))
+        {
+            spill();
+        }
+    }
+
+    @Override
+    public void append(final ExternalSorter other,
+                       final int[] poolIds)
+    {
+        if(!other.inputRuns.isEmpty())
+        {
+            spill();
+            inputRuns.addAll(other.inputRuns);
+            sortedRuns.addAll(other.sortedRuns);
+            other.inputRuns.clear();
+            other.sortedRuns.clear();
+        }
+
+        other.budget.release(other.bufferedBytes);
+        other.bufferedBytes = 0;
+        for(int i = 0; i < other.bufferSize; i++)
+        {
+            addId(poolIds == null ? other.buffer[i] : poolIds[other.buffer[i]]);
+        }
+        other.clearBuffer();
+    }
+
+    /**
+     * @return Every name, in the order they were added. The stream must be
+     *         closed when a run was spilled.
+     */
+    public Stream<String> inputOrder()
+    {
+        return Stream.concat(List.copyOf(inputRuns)
+                                     .stream()
+                                     .flatMap(ExternalSorter::readLines),
+                             bufferedNames());
+    }
+
+    /**
+     * @return Every name in ascending order. The stream must be closed when
+     *         a run was spilled.
+     */
+    public Stream<String> ascending()
+    {
+        if(sortedRuns.isEmpty())
+        {
+            return repeated(sortBuffer(), false);
+        }
+
+        spill();
+        reduceRuns();
+
+        return merge(sortedRuns, false, Comparator.naturalOrder());
+    }
+
+    /**
+     * @return Every name in descending order, read backwards from the same
+     *         sorted data as {@link #ascending()}. The stream must be
+     *         closed when a run was spilled.
+     */
+    public Stream<String> descending()
+    {
+        if(sortedRuns.isEmpty())
+        {
+            return repeated(sortBuffer(), true);
+        }
+
+        spill();
+        reduceRuns();
+
+        return merge(sortedRuns, true, Comparator.reverseOrder());
+    }
+
+    /**
+     * @return The number of sorted runs on disk.
+     */
+    public int getRunCount()
+    {
+        return sortedRuns.size();
+    }
+
+    /**
+     * Deletes every spilled run file and returns the buffered names'
+     * share of the budget.
+     *
+     * @throws IOException If a run file cannot be deleted.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        for(final Path run : inputRuns)
+        {
+            Files.deleteIfExists(run);
+        }
+        for(final Path run : sortedRuns)
+        {
+            Files.deleteIfExists(run);
+        }
+        inputRuns.clear();
+        sortedRuns.clear();
+
+        budget.release(bufferedBytes);
+        bufferedBytes = 0;
+        clearBuffer();
+    }
+
+    /*
+     * Estimates the heap taken by a buffered name.
+     */
+    private static long estimateSize(final String name)
+    {
+        return ESTIMATED_BYTES_PER_NAME + name.length();
+    }
+
+    /*
+     * Returns the buffered names in input order.
+     */
+    private Stream<String> bufferedNames()
+    {
+        final int[] ids;
+
+        ids = buffer;
+
+        return IntStream.range(0, bufferSize)
+                .mapToObj(index->pool.name(ids[index]));
+    }
+
+    /*
+     * Sorts the distinct buffered ids by name once and caches the result.
+     * Each id's count is negated while it is collected, marking it as
+     * seen without another array.
+     */
+    private int[] sortBuffer()
+    {
+        if(sorted == null)
+        {
+            final int[] distinct;
+            int         count;
+
+            distinct = new int[bufferSize];
+            count    = 0;
+            for(int i = 0; i < bufferSize; i++)
+            {
+                if(bufferCounts[buffer[i]] > 0)
+                {
+                    distinct[count] = buffer[i];
+                    bufferCounts[buffer[i]] = -bufferCounts[buffer[i]];
+                    count++;
+                }
+            }
+            for(int i = 0; i < count; i++)
+            {
+                bufferCounts[distinct[i]] = -bufferCounts[distinct[i]];
+            }
+            sorted = pool.sort(Arrays.copyOf(distinct, count));
+        }
+
+        return sorted;
+    }
+
+    /*
+     * Streams the names of sorted distinct ids, each as often as it was
+     * buffered, backwards when reversed.
+     */
+    private Stream<String> repeated(final int[] order,
+                                    final boolean reversed)
+    {
+        return StreamSupport.stream(Spliterators.spliterator(new RepeatedNames(order, reversed),
+                                                             bufferSize,
+                                                             Spliterator.ORDERED |
+                                                             Spliterator.NONNULL),
+                                    false);
+    }
+
+    /*
+     * Empties the buffer and its counts.
+     */
+    private void clearBuffer()
+    {
+        for(int i = 0; i < bufferSize; i++)
+        {
+            bufferCounts[buffer[i]] = 0;
+        }
+        bufferSize = 0;
+        sorted     = null;
+    }
+
+    /*
+     * Writes the buffered names to disk as a new run, empties the buffer
+     * and returns its share of the budget.
+     */
+    private void spill()
+    {
+        final int[] order;
+
+        if(bufferSize == 0)
+        {
+            return;
+        }
+
+        order = sortBuffer();
+
+        try
+        {
+            final Path inputRun;
+            final Path sortedRun;
+
+            inputRun = createRunFile();
+            inputRuns.add(inputRun);
+            sortedRun = createRunFile();
+            sortedRuns.add(sortedRun);
+
+            writeLines(inputRun, bufferedNames()::iterator);
+            writeLines(sortedRun, repeated(order, false)::iterator);
+        }
+        catch(final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        budget.release(bufferedBytes);
+        bufferedBytes = 0;
+        clearBuffer();
+    }
+
+    /*
+     * Merges groups of sorted runs into longer runs until no more than
+     * MAX_MERGE_FAN_IN are left, so a merge never opens more files.
+     */
+    private void reduceRuns()
+    {
+        while(sortedRuns.size() > MAX_MERGE_FAN_IN)
+        {
+            final List<Path> merged;
+
+            merged = new ArrayList<>();
+            for(int from = 0; from < sortedRuns.size(); from += MAX_MERGE_FAN_IN)
+            {
+                final List<Path> group;
+
+                group = sortedRuns.subList(from, Math.min(from + MAX_MERGE_FAN_IN, sortedRuns.size()));
+                merged.add(group.size() == 1 ? group.getFirst() : mergeToRun(group));
+            }
+
+            sortedRuns.clear();
+            sortedRuns.addAll(merged);
+        }
+    }
+
+    /*
+     * Merges sorted runs into a new run file and deletes them.
+     */
+    private static Path mergeToRun(final List<Path> runs)
+    {
+        try
+        {
+            final Path run;
+
+            run = createRunFile();
+            try(final Stream<String> names = merge(runs, false, Comparator.naturalOrder()))
+            {
+                writeLines(run, names::iterator);
+            }
+            catch(final IOException | UncheckedIOException e)
+            {
+                Files.deleteIfExists(run);
+                throw e;
+            }
+
+            for(final Path merged : runs)
+            {
+                Files.deleteIfExists(merged);
+            }
+
+            return run;
+        }
+        catch(final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Writes names to a run file, each followed by a line feed.
+     */
+    private static void writeLines(final Path run,
+                                   final Iterable<String> names) throws IOException
+    {
+        try(final BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8))
+        {
+            for(final String name : names)
+            {
+                writer.write(name);
+                writer.write('\n');
+            }
+        }
+    }
+
+    /*
+     * Opens a run file as a stream of names.
+     */
+    private static Stream<String> readLines(final Path file)
+    {
+        try
+        {
+            return Files.lines(file, StandardCharsets.UTF_8);
+        }
+        catch(final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Merges sorted run files into one sorted stream, reading every run
+     * backwards when the order is reversed.
+     */
+    private static Stream<String> merge(final List<Path> files,
+                                         final boolean backwards,
+                                         final Comparator<String> order)
+    {
+        final List<RunReader> readers;
+        final RunMerger       merger;
+
+        readers = new ArrayList<>();
+        try
+        {
+            for(final Path file : files)
+            {
+                readers.add(backwards ? new BackwardRunReader(file) : new ForwardRunReader(file));
+            }
+            merger = new RunMerger(readers, order);
+        }
+        catch(final IOException e)
+        {
+            closeAll(readers);
+            throw new UncheckedIOException(e);
+        }
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merger,
+                                                                        Spliterator.ORDERED |
+                                                                        Spliterator.NONNULL),
+                                    false)
+                .onClose(()->closeAll(readers));
+    }
+
+    /*
+     * Closes every reader, reporting the first failure.
+     */
+    private static void closeAll(final List<RunReader> readers)
+    {
+        UncheckedIOException failure;
+
+        failure = null;
+        for(final RunReader reader : readers)
+        {
+            try
+            {
+                reader.close();
+            }
+            catch(final IOException e)
+            {
+                if(failure == null)
+                {
+                    failure = new UncheckedIOException(e);
+                }
+            }
+        }
+
+        if(failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    /*
+     * Creates an empty run file in this process's run directory.
+     */
+    private static Path createRunFile() throws IOException
+    {
+        return Files.createTempFile(runDirectory(), RUN_FILE_PREFIX, ".txt");
+    }
+
+    /*
+     * Returns this process's run directory, creating it on first use along
+     * with a hook deleting it on exit, after deleting the run directories
+     * of processes that are no longer running.
+     */
+    private static synchronized Path runDirectory() throws IOException
+    {
+        final long pid;
+        final Path directory;
+
+        if(runDirectory != null && Files.isDirectory(runDirectory))
+        {
+            return runDirectory;
+        }
+
+        pid = ProcessHandle.current().pid();
+        deleteAbandonedRuns(Paths.get(System.getProperty("java.io.tmpdir")));
+        directory = Files.createTempDirectory(RUN_DIRECTORY_PREFIX + pid + PID_SEPARATOR);
+        Runtime.getRuntime().addShutdownHook(new Thread(()->deleteDirectory(directory)));
+        runDirectory = directory;
+
+        return runDirectory;
+    }
+
+    /*
+     * Deletes the run directories whose process is no longer running.
+     */
+    private static void deleteAbandonedRuns(final Path temporaryDirectory) throws IOException
+    {
+        try(final DirectoryStream<Path> directories = Files.newDirectoryStream(temporaryDirectory,
+                                                                                RUN_DIRECTORY_PREFIX + "*"))
+        {
+            for(final Path directory : directories)
+            {
+                final String name;
+                final int    pidEnd;
+
+                name   = directory.getFileName().toString();
+                pidEnd = name.indexOf(PID_SEPARATOR, RUN_DIRECTORY_PREFIX.length());
+                if(pidEnd < 0)
+                {
+                    continue;
+                }
+
+                try
+                {
+                    if(ProcessHandle.of(Long.parseLong(name.substring(RUN_DIRECTORY_PREFIX.length(), pidEnd)))
+                            .isEmpty())
+                    {
+                        deleteDirectory(directory);
+                    }
+                }
+                catch(final NumberFormatException e)
+                {
+                    // Not a run directory; leave it alone.
+                }
+            }
+        }
+    }
+
+    /*
+     * Deletes a run directory and its files, leaving whatever cannot be
+     * deleted for a later run to clean up.
+     */
+    private static void deleteDirectory(final Path directory)
+    {
+        try(final Stream<Path> files = Files.list(directory))
+        {
+            for(final Path file : files.toList())
+            {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        }
+        catch(final IOException | UncheckedIOException e)
+        {
+            // Deleted by the next process that spills a run.
+        }
+    }
+
+    /*
+     * Reads the names of a sorted run one at a time.
+     */
+    private interface RunReader extends Closeable
+    {
+        /*
+         * Returns the next name, or null at the end of the run.
+         */
+        String readLine() throws IOException;
+    }
+
+    /*
+     * Reads a run from its first name to its last.
+     */
+    private static final class ForwardRunReader implements RunReader
+    {
+        private final BufferedReader reader;
+
+        ForwardRunReader(final Path file) throws IOException
+        {
+            reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String readLine() throws IOException
+        {
+            return reader.readLine();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            reader.close();
+        }
+    }
+
+    /*
+     * Reads a run from its last name to its first, one block at a time.
+     * The window holds the unread bytes that have been loaded: the end of
+     * the unread part of the file. A line feed is a single byte in UTF-8,
+     * so lines can be split before they are decoded.
+     */
+    private static final class BackwardRunReader implements RunReader
+    {
+        private final FileChannel channel;
+        private byte[]            window;
+        private long              windowStart;
+        private int               windowLength;
+
+        BackwardRunReader(final Path file) throws IOException
+        {
+            channel      = FileChannel.open(file, StandardOpenOption.READ);
+            window       = new byte[READ_BLOCK_SIZE];
+            windowStart  = channel.size();
+            windowLength = 0;
+        }
+
+        @Override
+        public String readLine() throws IOException
+        {
+            final String line;
+            int          index;
+
+            if(windowLength == 0 && loadBlock() == 0)
+            {
+                return null;
+            }
+
+            windowLength--;
+            index = windowLength - 1;
+            while(true)
+            {
+                while(index >= 0 && window[index] != '\n')
+                {
+                    index--;
+                }
+                if(index >= 0 || windowStart == 0)
+                {
+                    break;
+                }
+                index += loadBlock();
+            }
+
+            line         = new String(window, index + 1, windowLength - index - 1, StandardCharsets.UTF_8);
+            windowLength = index + 1;
+
+            return line;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            channel.close();
+        }
+
+        /*
+         * Loads the block before the window in front of it and returns the
+         * number of bytes loaded, 0 at the start of the file.
+         */
+        private int loadBlock() throws IOException
+        {
+            final int        count;
+            final ByteBuffer target;
+
+            count = (int) Math.min(READ_BLOCK_SIZE, windowStart);
+            if(count == 0)
+            {
+                return 0;
+            }
+
+            if(windowLength + count > window.length)
+            {
+                window = Arrays.copyOf(window, Math.max(window.length * 2, windowLength + count));
+            }
+            System.arraycopy(window, 0, window, count, windowLength);
+
+            windowStart -= count;
+            target       = ByteBuffer.wrap(window, 0, count);
+            while(target.hasRemaining())
+            {
+                if(channel.read(target, windowStart + target.position()) < 0)
+                {
+                    throw new EOFException("Run file shrank while being read.");
+                }
+            }
+            windowLength += count;
+
+            return count;
+        }
+    }
+
+    /*
+     * Iterates the names of sorted distinct buffered ids, each as often as
+     * it was buffered.
+     */
+    private final class RepeatedNames implements Iterator<String>
+    {
+        private final int[]   order;
+        private final int[]   counts;
+        private final boolean reversed;
+        private int           index;
+        private int           remaining;
+        private String        name;
+
+        RepeatedNames(final int[] order,
+                      final boolean reversed)
+        {
+            this.order    = order;
+            this.reversed = reversed;
+
+            counts    = bufferCounts;
+            index     = 0;
+            remaining = 0;
+            name      = null;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return remaining > 0 || index < order.length;
+        }
+
+        @Override
+        public String next()
+        {
+            if(remaining == 0)
+            {
+                final int id;
+
+                if(index == order.length)
+                {
+                    throw new NoSuchElementException();
+                }
+
+                id        = order[reversed ? order.length - 1 - index : index];
+                name      = pool.name(id);
+                remaining = counts[id];
+                index++;
+            }
+
+            remaining--;
+
+            return name;
+        }
+    }
+
+    /*
+     * Iterates the smallest head line across several sorted readers.
+     */
+    private static class RunMerger implements Iterator<String>
+    {
+        private final PriorityQueue<Head> heads;
+
+        /*
+         * The next unread line of one run.
+         */
+        private record Head(String line,
+                            RunReader reader)
+        {
+        }
+
+        RunMerger(final List<RunReader> readers,
+                  final Comparator<String> order) throws IOException
+        {
+            heads = new PriorityQueue<>(Math.max(1, readers.size()),
+                                        Comparator.comparing(Head::line, order));
+
+            for(final RunReader reader : readers)
+            {
+                push(reader);
+            }
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public String next()
+        {
+            final Head head;
+
+            head = heads.poll();
+            if(head == null)
+            {
+                throw new NoSuchElementException();
+            }
+
+            try
+            {
+                push(head.reader());
+            }
+            catch(final IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+
+            return head.line();
+        }
+
+        /*
+         * Queues the next line of the reader, if any.
+         */
+        private void push(final RunReader reader) throws IOException
+        {
+            final String line;
+
+            line = reader.readLine();
+            if(line != null)
+            {
+                heads.add(new Head(line, reader));
+            }
+        }
+    }
+}
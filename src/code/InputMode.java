@@ -0,0 +1,19 @@
+/**
+ * The ways {@link CountryLab} can read the country file.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public enum InputMode
+{
+    /**
+     * Reads the file line by line with {@link java.nio.file.Files#lines}.
+     */
+    LINES,
+
+    /**
+     * Memory-maps the file and splits lines on the mapped bytes.
+     */
+    MAPPED
+}
@@ -0,0 +1,258 @@
+import java.util.*;
+
+
+/**
+ * Country names bucketed by length, in code points, as they are added.
+ * Each bucket holds the positions of its names, in input order, in a
+ * primitive int array, so length range queries, the longest and shortest
+ * names and minimum length checks only visit the buckets involved instead
+ * of every name. The names themselves are kept as ids of a
+ * {@link NamePool}.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class LengthIndex implements PooledNames<LengthIndex>
+{
+    private static final int INITIAL_CAPACITY        = 16;
+    private static final int INITIAL_BUCKET_CAPACITY = 4;
+
+    private NamePool pool;
+    private int[]    nameIds;
+    private int      size;
+    private int[][]  buckets;
+    private int[]    bucketSizes;
+
+    /**
+     * Creates an empty index.
+     */
+    public LengthIndex()
+    {
+        pool        = new NamePool();
+        nameIds     = new int[INITIAL_CAPACITY];
+        size        = 0;
+        buckets     = new int[0][];
+        bucketSizes = new int[0];
+    }
+
+    /**
+     * Adds a name after every name added so far.
+     *
+     * @param name The name to add.
+     */
+    public void add(final String name)
+    {
+        addId(pool.add(name));
+    }
+
+    /**
+     * Appends the names of an index built over the names that follow this
+     * index's names in the input.
+     *
+     * @param other The index for the following chunk of the input.
+     * @return This index.
+     */
+    public LengthIndex combine(final LengthIndex other)
+    {
+        append(other, other.pool == pool ? null : pool.combine(other.pool));
+
+        return this;
+    }
+
+    @Override
+    public void usePool(final NamePool pool)
+    {
+        if(size > 0)
+        {
+            throw new IllegalStateException("Names were already added.");
+        }
+
+        this.pool = pool;
+    }
+
+    @Override
+    public void addId(final int id)
+    {
+        final String name;
+
+        name = pool.name(id);
+        appendPosition(name.codePointCount(0, name.length()), size);
+        appendId(id);
+    }
+
+    @Override
+    public void append(final LengthIndex other,
+                       final int[] poolIds)
+    {
+        final int offset;
+
+        offset = size;
+        for(int length = 0; length < other.bucketSizes.length; length++)
+        {
+            for(int i = 0; i < other.bucketSizes[length]; i++)
+            {
+                appendPosition(length, offset + other.buckets[length][i]);
+            }
+        }
+        for(int i = 0; i < other.size; i++)
+        {
+            appendId(poolIds == null ? other.nameIds[i] : poolIds[other.nameIds[i]]);
+        }
+    }
+
+    /**
+     * @return The number of names in the index.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Finds the names whose length lies in a range.
+     *
+     * @param minLength The shortest length to include.
+     * @param maxLength The longest length to include.
+     * @return The matching names, in input order.
+     */
+    public List<String> withLengthBetween(final int minLength,
+                                          final int maxLength)
+    {
+        final int from;
+        final int to;
+        int[]     positions;
+        int       count;
+
+        from  = Math.max(0, minLength);
+        to    = Math.min(bucketSizes.length - 1, maxLength);
+        count = 0;
+        for(int length = from; length <= to; length++)
+        {
+            count += bucketSizes[length];
+        }
+
+        positions = new int[count];
+        count     = 0;
+        for(int length = from; length <= to; length++)
+        {
+            if(bucketSizes[length] > 0)
+            {
+                System.arraycopy(buckets[length], 0, positions, count, bucketSizes[length]);
+                count += bucketSizes[length];
+            }
+        }
+        if(from < to)
+        {
+            Arrays.sort(positions);
+        }
+
+        return toNames(positions);
+    }
+
+    /**
+     * @return Every name sharing the greatest length, in input order.
+     */
+    public List<String> longest()
+    {
+        for(int length = bucketSizes.length - 1; length >= 0; length--)
+        {
+            if(bucketSizes[length] > 0)
+            {
+                return withLengthBetween(length, length);
+            }
+        }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * @return Every name sharing the smallest length, in input order.
+     */
+    public List<String> shortest()
+    {
+        for(int length = 0; length < bucketSizes.length; length++)
+        {
+            if(bucketSizes[length] > 0)
+            {
+                return withLengthBetween(length, length);
+            }
+        }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * Checks that no name is as short as a length or shorter.
+     *
+     * @param length The length every name must exceed.
+     * @return True if every name is longer than the length.
+     */
+    public boolean allLongerThan(final int length)
+    {
+        for(int bucket = 0; bucket <= length && bucket < bucketSizes.length; bucket++)
+        {
+            if(bucketSizes[bucket] > 0)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /*
+     * Records the pool id of the name at the next position.
+     */
+    private void appendId(final int id)
+    {
+        if(size == nameIds.length)
+        {
+            nameIds = Arrays.copyOf(nameIds, size * 2);
+        }
+
+        nameIds[size] = id;
+        size++;
+    }
+
+    /*
+     * Adds a position to the bucket of a length, growing the buckets as
+     * needed.
+     */
+    private void appendPosition(final int length,
+                                final int position)
+    {
+        if(length >= buckets.length)
+        {
+            buckets     = Arrays.copyOf(buckets, length + 1);
+            bucketSizes = Arrays.copyOf(bucketSizes, length + 1);
+        }
+        if(buckets[length] == null)
+        {
+            buckets[length] = new int[INITIAL_BUCKET_CAPACITY];
+        }
+        else if(bucketSizes[length] == buckets[length].length)
+        {
+            buckets[length] = Arrays.copyOf(buckets[length], bucketSizes[length] * 2);
+        }
+
+        buckets[length][bucketSizes[length]] = position;
+        bucketSizes[length]++;
+    }
+
+    /*
+     * Maps positions to their names.
+     */
+    private List<String> toNames(final int[] positions)
+    {
+        final List<String> matches;
+
+        matches = new ArrayList<>(positions.length);
+        for(final int position : positions)
+        {
+            matches.add(pool.name(nameIds[position]));
+        }
+
+        return matches;
+    }
+}
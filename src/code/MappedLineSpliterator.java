@@ -0,0 +1,277 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * Splits a UTF-8 text file into lines straight from a memory-mapped view
+ * of the file. Line breaks are found on the raw bytes, lines made only of
+ * ASCII whitespace are skipped without being decoded, and every other
+ * line is decoded into a {@code String} directly from the mapped bytes.
+ * <p>
+ * Lines end with {@code \n}, {@code \r} or {@code \r\n}, the same as
+ * {@link Files#lines(Path)}. Files larger than one mapping are read
+ * through a sliding window. The spliterator splits on line boundaries,
+ * so a parallel stream processes line-aligned chunks of the file.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class MappedLineSpliterator extends Spliterators.AbstractSpliterator<String>
+{
+    private static final long MAX_WINDOW_SIZE    = 1L << 28;
+    private static final long MIN_SPLIT_SIZE     = 1L << 16;
+    private static final int  INITIAL_LINE_BYTES = 128;
+
+    private final FileChannel channel;
+    private final long        end;
+
+    private MappedByteBuffer window;
+    private long             windowStart;
+    private long             position;
+    private byte[]           lineBytes;
+
+    /*
+     * Creates a spliterator over the byte range [start, end) of the channel.
+     * start must be the first byte of a line.
+     */
+    private MappedLineSpliterator(final FileChannel channel,
+                                  final long start,
+                                  final long end)
+    {
+        super(Long.MAX_VALUE, ORDERED | NONNULL);
+
+        this.channel  = channel;
+        this.end      = end;
+        this.position = start;
+
+        window      = null;
+        windowStart = start;
+        lineBytes   = new byte[INITIAL_LINE_BYTES];
+    }
+
+    /**
+     * Opens a stream of the lines of a file, read through a memory map.
+     * The stream must be closed to release the file.
+     *
+     * @param path The file to read.
+     * @return A stream of the non-blank lines of the file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static Stream<String> lines(final Path path) throws IOException
+    {
+        final FileChannel channel;
+
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        return StreamSupport.stream(new MappedLineSpliterator(channel, 0, channel.size()), false)
+                .onClose(()->
+                         {
+                             try
+                             {
+                                 channel.close();
+                             }
+                             catch(final IOException e)
+                             {
+                                 throw new UncheckedIOException(e);
+                             }
+                         });
+    }
+
+    /**
+     * Decodes the next non-blank line and passes it to the action.
+     *
+     * @param action The consumer of the line.
+     * @return false once the end of the range is reached.
+     */
+    @Override
+    public boolean tryAdvance(final Consumer<? super String> action)
+    {
+        while(position < end)
+        {
+            final long lineEnd;
+            final long lineStart;
+
+            lineStart = position;
+            lineEnd   = findLineEnd(lineStart);
+            position  = skipLineBreak(lineEnd);
+
+            if(!isAsciiBlank(lineStart, lineEnd))
+            {
+                action.accept(decode(lineStart, lineEnd));
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Hands the first half of the remaining range, cut at a line
+     * boundary, to a new spliterator.
+     *
+     * @return A spliterator over the lines before the cut, or null if the
+     *         remaining range is too small to split.
+     */
+    @Override
+    public Spliterator<String> trySplit()
+    {
+        final long middle;
+        final long splitPoint;
+        final MappedLineSpliterator prefix;
+
+        if(end - position < MIN_SPLIT_SIZE)
+        {
+            return null;
+        }
+
+        middle     = position + (end - position) / 2;
+        splitPoint = skipLineBreak(findLineEnd(middle));
+        if(splitPoint >= end)
+        {
+            return null;
+        }
+
+        prefix   = new MappedLineSpliterator(channel, position, splitPoint);
+        position = splitPoint;
+
+        return prefix;
+    }
+
+    /**
+     * @return The number of bytes left in this spliterator's range.
+     */
+    @Override
+    public long estimateSize()
+    {
+        return end - position;
+    }
+
+    /*
+     * Returns the offset of the first line-break byte at or after from,
+     * or the end of the range if the last line has no line break.
+     */
+    private long findLineEnd(final long from)
+    {
+        for(long offset = from; offset < end; offset++)
+        {
+            final byte current;
+
+            current = byteAt(offset);
+            if(current == '\n' || current == '\r')
+            {
+                return offset;
+            }
+        }
+
+        return end;
+    }
+
+    /*
+     * Returns the offset just past the line break starting at lineEnd.
+     */
+    private long skipLineBreak(final long lineEnd)
+    {
+        if(lineEnd >= end)
+        {
+            return end;
+        }
+
+        if(byteAt(lineEnd) == '\r' &&
+           lineEnd + 1 < end &&
+           byteAt(lineEnd + 1) == '\n')
+        {
+            return lineEnd + 2;
+        }
+
+        return lineEnd + 1;
+    }
+
+    /*
+     * Returns true if every byte in [from, to) is an ASCII whitespace
+     * character, so the line would be dropped by the blank filter.
+     */
+    private boolean isAsciiBlank(final long from,
+                                 final long to)
+    {
+        for(long offset = from; offset < to; offset++)
+        {
+            final byte current;
+
+            current = byteAt(offset);
+            if(current != ' ' &&
+               (current < 0x09 || current > 0x0D) &&
+               (current < 0x1C || current > 0x1F))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /*
+     * Decodes the UTF-8 bytes in [from, to) into a String.
+     */
+    private String decode(final long from,
+                          final long to)
+    {
+        final int length;
+
+        length = Math.toIntExact(to - from);
+        if(length > lineBytes.length)
+        {
+            lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+        }
+
+        mapWindow(from, length);
+        window.get(Math.toIntExact(from - windowStart), lineBytes, 0, length);
+
+        return new String(lineBytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * Reads a single byte, moving the window if needed.
+     */
+    private byte byteAt(final long offset)
+    {
+        mapWindow(offset, 1);
+
+        return window.get(Math.toIntExact(offset - windowStart));
+    }
+
+    /*
+     * Makes sure the window covers [offset, offset + length).
+     */
+    private void mapWindow(final long offset,
+                           final int length)
+    {
+        if(window != null &&
+           offset >= windowStart &&
+           offset + length <= windowStart + window.capacity())
+        {
+            return;
+        }
+
+        try
+        {
+            final long size;
+
+            size        = Math.max(length, Math.min(MAX_WINDOW_SIZE, end - offset));
+            window      = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+            windowStart = offset;
+        }
+        catch(final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
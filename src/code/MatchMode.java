@@ -0,0 +1,111 @@
+import java.text.Normalizer;
+import java.util.Locale;
+
+
+/**
+ * How the text sections compare a name with the text they look for. Each
+ * mode maps a name to a key, and two texts match when their keys do.
+ * The keys are built one code point at a time, so a name that starts with,
+ * ends with or contains some text still does so after both are mapped.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public enum MatchMode
+{
+    /**
+     * Names must match character for character.
+     */
+    EXACT,
+
+    /**
+     * Upper and lower case letters match each other.
+     */
+    CASE_INSENSITIVE,
+
+    /**
+     * Case is ignored and accents are removed, so {@code "Côte"} matches
+     * {@code "cote"}.
+     */
+    ACCENT_INSENSITIVE;
+
+    /**
+     * Parses a mode written in lower case with dashes, such as
+     * {@code case-insensitive}.
+     *
+     * @param value The mode's name.
+     * @return The mode.
+     * @throws IllegalArgumentException If no mode has that name.
+     */
+    public static MatchMode parse(final String value)
+    {
+        return valueOf(value.replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Maps a text to the key compared under this mode.
+     *
+     * @param text The text to map.
+     * @return The key; the text itself for {@link #EXACT}.
+     */
+    public String key(final String text)
+    {
+        return switch(this)
+        {
+            case EXACT              -> text;
+            case CASE_INSENSITIVE   -> fold(text);
+            case ACCENT_INSENSITIVE -> fold(stripAccents(text));
+        };
+    }
+
+    /*
+     * Folds the case of every code point the way String.equalsIgnoreCase
+     * compares them, without depending on the surrounding text.
+     */
+    private static String fold(final String text)
+    {
+        final StringBuilder key;
+
+        key = new StringBuilder(text.length());
+        for(int i = 0; i < text.length(); )
+        {
+            final int codePoint;
+
+            codePoint = text.codePointAt(i);
+            key.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint)));
+            i += Character.charCount(codePoint);
+        }
+
+        return key.toString();
+    }
+
+    /*
+     * Decomposes accented letters and drops the combining marks.
+     */
+    private static String stripAccents(final String text)
+    {
+        final String        decomposed;
+        final StringBuilder stripped;
+
+        decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        stripped   = new StringBuilder(decomposed.length());
+        for(int i = 0; i < decomposed.length(); )
+        {
+            final int codePoint;
+            final int type;
+
+            codePoint = decomposed.codePointAt(i);
+            type      = Character.getType(codePoint);
+            if(type != Character.NON_SPACING_MARK &&
+               type != Character.ENCLOSING_MARK &&
+               type != Character.COMBINING_SPACING_MARK)
+            {
+                stripped.appendCodePoint(codePoint);
+            }
+            i += Character.charCount(codePoint);
+        }
+
+        return stripped.toString();
+    }
+}
@@ -0,0 +1,269 @@
+import java.util.*;
+import java.util.stream.Collector;
+
+
+/**
+ * Stores each distinct country name once and gives it a compact int id,
+ * in order of first occurrence, with a count of occurrences per id.
+ * <p>
+ * A {@link ReportEngine} adds every name to one pool per chunk of the
+ * input as it is read, and the section containers that implement
+ * {@link PooledNames} keep the names as ids of that pool, so a name that
+ * occurs many times, or is held by several sections, is one String.
+ * Combining the pools of two chunks maps the ids of the second to the
+ * ids of the first, and the containers of the second chunk are appended
+ * through that mapping. Ids are found by open addressing in a table of
+ * ids, so no id is ever boxed.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class NamePool
+{
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY_SLOT       = -1;
+
+    private static final Collector<String, NamePool, NamePool> COLLECTOR =
+            Collector.of(NamePool::new,
+                         NamePool::add,
+                         (first, second)->
+                         {
+                             first.combine(second);
+                             return first;
+                         });
+
+    private String[] names;
+    private int[]    counts;
+    private int[]    slots;
+    private int      size;
+
+    /**
+     * Creates an empty pool.
+     */
+    public NamePool()
+    {
+        names  = new String[INITIAL_CAPACITY];
+        counts = new int[INITIAL_CAPACITY];
+        slots  = emptySlots(INITIAL_CAPACITY * 2);
+        size   = 0;
+    }
+
+    /**
+     * Returns the collector of the pool itself. A {@link ReportEngine}
+     * answers it with the pool it already builds, so sections using it,
+     * such as the duplicates section, cost nothing more.
+     *
+     * @return The shared pool collector.
+     */
+    public static Collector<String, NamePool, NamePool> collector()
+    {
+        return COLLECTOR;
+    }
+
+    /**
+     * Adds one occurrence of a name after every name added so far.
+     *
+     * @param name The name to add.
+     * @return The name's id.
+     */
+    public int add(final String name)
+    {
+        final int id;
+
+        id = idOf(name);
+        counts[id]++;
+
+        return id;
+    }
+
+    /**
+     * Appends the names of a pool built over the names that follow this
+     * pool's names in the input, adding the other pool's counts to this
+     * pool's ids.
+     *
+     * @param other The pool for the following chunk of the input.
+     * @return The id in this pool of every id of the other pool.
+     */
+    public int[] combine(final NamePool other)
+    {
+        final int[] ids;
+
+        ids = new int[other.size];
+        for(int id = 0; id < other.size; id++)
+        {
+            ids[id] = idOf(other.names[id]);
+            counts[ids[id]] += other.counts[id];
+        }
+
+        return ids;
+    }
+
+    /**
+     * @return The number of distinct names.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @param id A name's id.
+     * @return The name.
+     */
+    public String name(final int id)
+    {
+        Objects.checkIndex(id, size);
+
+        return names[id];
+    }
+
+    /**
+     * @param id A name's id.
+     * @return The number of times the name was added.
+     */
+    public int count(final int id)
+    {
+        Objects.checkIndex(id, size);
+
+        return counts[id];
+    }
+
+    /**
+     * @param name A name.
+     * @return The name's id, or -1 if it was never added.
+     */
+    public int find(final String name)
+    {
+        return slots[findSlot(name)];
+    }
+
+    /**
+     * Orders ids by their names, so each distinct name is compared
+     * however many times it occurs.
+     *
+     * @param ids Distinct ids of this pool.
+     * @return The same ids in ascending order of their names.
+     */
+    public int[] sort(final int[] ids)
+    {
+        final String[] sorted;
+        final int[]    order;
+
+        sorted = new String[ids.length];
+        for(int i = 0; i < ids.length; i++)
+        {
+            sorted[i] = name(ids[i]);
+        }
+        Arrays.sort(sorted);
+
+        order = new int[sorted.length];
+        for(int i = 0; i < sorted.length; i++)
+        {
+            order[i] = find(sorted[i]);
+        }
+
+        return order;
+    }
+
+    /**
+     * @return The ids of the names added more than once, in order of first
+     *         occurrence.
+     */
+    public int[] duplicates()
+    {
+        int[] duplicates;
+        int   count;
+
+        duplicates = new int[size];
+        count      = 0;
+        for(int id = 0; id < size; id++)
+        {
+            if(counts[id] > 1)
+            {
+                duplicates[count] = id;
+                count++;
+            }
+        }
+
+        return Arrays.copyOf(duplicates, count);
+    }
+
+    /*
+     * Returns the id of a name, giving it the next id if it is new.
+     */
+    private int idOf(final String name)
+    {
+        final int slot;
+        final int id;
+
+        slot = findSlot(name);
+        if(slots[slot] != EMPTY_SLOT)
+        {
+            return slots[slot];
+        }
+
+        id = size;
+        if(id == names.length)
+        {
+            names  = Arrays.copyOf(names, id * 2);
+            counts = Arrays.copyOf(counts, id * 2);
+        }
+        names[id]   = name;
+        slots[slot] = id;
+        size++;
+
+        if(size * 2 > slots.length)
+        {
+            rehash();
+        }
+
+        return id;
+    }
+
+    /*
+     * Finds the slot holding a name's id, or the empty slot where it
+     * belongs.
+     */
+    private int findSlot(final String name)
+    {
+        final int mask;
+        final int hash;
+        int       slot;
+
+        mask = slots.length - 1;
+        hash = name.hashCode();
+        slot = (hash ^ hash >>> 16) & mask;
+        while(slots[slot] != EMPTY_SLOT && !names[slots[slot]].equals(name))
+        {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /*
+     * Doubles the table and puts every id back.
+     */
+    private void rehash()
+    {
+        slots = emptySlots(slots.length * 2);
+        for(int id = 0; id < size; id++)
+        {
+            slots[findSlot(names[id])] = id;
+        }
+    }
+
+    /*
+     * Creates a table with every slot empty.
+     */
+    private static int[] emptySlots(final int size)
+    {
+        final int[] slots;
+
+        slots = new int[size];
+        Arrays.fill(slots, EMPTY_SLOT);
+
+        return slots;
+    }
+}
@@ -0,0 +1,91 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * How {@link CountryLab} encodes the report files it writes. Compressed
+ * output is encoded as it streams out of the {@link ReportWriter}, so the
+ * uncompressed report never exists in memory or on disk.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public enum OutputCompression
+{
+    /**
+     * Writes the report as plain UTF-8 text.
+     */
+    NONE(""),
+
+    /**
+     * Writes the report as a gzip file, with a {@code .gz} extension.
+     */
+    GZIP(".gz");
+
+    /**
+     * The compression level used when none is configured.
+     */
+    public static final int DEFAULT_LEVEL = Deflater.DEFAULT_COMPRESSION;
+
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
+    private final String extension;
+
+    /*
+     * Creates a compression with the file extension it adds.
+     */
+    OutputCompression(final String extension)
+    {
+        this.extension = extension;
+    }
+
+    /**
+     * Adds this compression's extension to an output path, unless the
+     * path already ends with it.
+     *
+     * @param path The output path as configured.
+     * @return The path to write.
+     */
+    public Path resolve(final Path path)
+    {
+        final String fileName;
+
+        fileName = path.getFileName().toString();
+        if(fileName.endsWith(extension))
+        {
+            return path;
+        }
+
+        return path.resolveSibling(fileName + extension);
+    }
+
+    /**
+     * Wraps an output stream so that everything written to it is
+     * compressed. Closing the returned stream finishes the compressed
+     * data and closes the wrapped stream.
+     *
+     * @param out   The stream to write the encoded report to.
+     * @param level The compression level, from 0 to 9, or
+     *              {@link #DEFAULT_LEVEL}.
+     * @return The stream to write the report to.
+     * @throws IOException If the compressed stream cannot be started.
+     */
+    public OutputStream wrap(final OutputStream out,
+                             final int level) throws IOException
+    {
+        return switch(this)
+        {
+            case NONE -> out;
+            case GZIP -> new GZIPOutputStream(out, GZIP_BUFFER_SIZE)
+            {
+                {
+                    def.setLevel(level);
+                }
+            };
+        };
+    }
+}
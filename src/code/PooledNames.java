@@ -0,0 +1,50 @@
+/**
+ * A collector container that keeps its names as ids of a {@link NamePool}
+ * instead of as Strings of its own.
+ * <p>
+ * A container starts with a pool of its own, so it works like any other
+ * collector container on its own. A {@link ReportEngine} instead gives
+ * every such container of a chunk the chunk's pool before any name is
+ * added, adds each name to the pool once and hands the containers the
+ * name's id. When two chunks are combined, the engine combines their pools
+ * once and appends every container of the second chunk through the
+ * resulting id mapping.
+ *
+ * @param <C> The type of the container.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public interface PooledNames<C extends PooledNames<C>>
+{
+    /**
+     * Makes this container keep its names in a pool shared with other
+     * containers.
+     *
+     * @param pool The shared pool.
+     * @throws IllegalStateException If a name was already added.
+     */
+    void usePool(NamePool pool);
+
+    /**
+     * Adds a name of the pool after every name added so far. The name
+     * must already have been added to the pool.
+     *
+     * @param id The name's id in the pool.
+     */
+    void addId(int id);
+
+    /**
+     * Appends the names of a container built over the names that follow
+     * this container's names in the input. The other container must not
+     * be used afterwards.
+     *
+     * @param other   The container for the following chunk of the input.
+     * @param poolIds The id in this container's pool of every id of the
+     *                other container's pool, or null if both share a
+     *                pool.
+     */
+    void append(C other,
+                int[] poolIds);
+}
@@ -0,0 +1,641 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Serves the report sections over HTTP on the loopback interface, so
+ * other local services can query them without starting a JVM per query.
+ * The names are collected once. {@link #reload()} collects them again and
+ * empties the cache, and is meant to run whenever the country file
+ * changes.
+ * <p>
+ * {@code GET /sections} lists the section names, one per line, and
+ * {@code GET /sections/<name>} returns one section without its header.
+ * The optional {@code offset} and {@code limit} query parameters return a
+ * page of the section's lines, such as the first hundred sorted names.
+ * Only the requested page is rendered: the lines before the offset are
+ * skipped as they are written and rendering stops after the last line of
+ * the page, so the first page of a long section never renders the rest of
+ * it. Rendered pages are kept in a least recently used cache bounded by
+ * the bytes of the pages it holds; a page larger than the whole cache is
+ * sent without being kept.
+ * <p>
+ * {@code GET /names} answers an ad-hoc query over the names held by the
+ * served {@link CountryIndex}, one match per line in input order. Exactly
+ * one of the {@code starts-with}, {@code ends-with} and {@code contains}
+ * parameters gives the text to look for, and the optional {@code match}
+ * parameter gives its {@link MatchMode}, {@code exact} by default. The
+ * index builds its prefix, suffix and substring structures once enough
+ * queries of one kind have been asked, so repeated queries stop scanning
+ * every name. Answers are not cached.
+ * <p>
+ * Requests are handled on virtual threads. Pages are rendered one at a
+ * time under a lock, since the shared section containers are not safe for
+ * concurrent reads, but the lock is released before the page is sent, so
+ * a slow client never holds up other requests.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class QueryServer implements Closeable
+{
+    private static final String SECTIONS_PATH = "/sections";
+    private static final String NAMES_PATH    = "/names";
+    private static final String CONTENT_TYPE  = "text/plain; charset=utf-8";
+    private static final int    OK            = 200;
+    private static final int    BAD_REQUEST   = 400;
+    private static final int    NOT_FOUND     = 404;
+    private static final int    BAD_METHOD    = 405;
+    private static final int    STOP_DELAY    = 0;
+    private static final float  LOAD_FACTOR   = 0.75f;
+
+    private static final int INITIAL_CACHE_CAPACITY = 16;
+
+    private final Loader              loader;
+    private final long                cacheBytes;
+    private final Map<String, byte[]> cache;
+    private final Lock                renderLock;
+    private final ExecutorService     executor;
+    private final HttpServer          server;
+
+    private ReportResults results;
+    private long          cachedBytes;
+
+    /**
+     * Collects the report results served by the server.
+     */
+    @FunctionalInterface
+    public interface Loader
+    {
+        /**
+         * Reads the country file and collects every section.
+         *
+         * @return The collected sections.
+         * @throws IOException If the country file cannot be read.
+         */
+        ReportResults load() throws IOException;
+    }
+
+    /**
+     * Collects the sections and binds the server to a loopback port. The
+     * server only answers requests once {@link #start()} is called.
+     *
+     * @param port       The port to listen on, or 0 for any free port.
+     * @param cacheBytes The most bytes of rendered pages kept in the
+     *                   cache.
+     * @param loader     Collects the sections, now and on every reload.
+     * @throws IOException If the sections cannot be collected or the port
+     *                     cannot be bound.
+     */
+    public QueryServer(final int port,
+                       final long cacheBytes,
+                       final Loader loader) throws IOException
+    {
+        if(cacheBytes <= 0)
+        {
+            throw new IllegalArgumentException("Cache size must be positive: " + cacheBytes);
+        }
+
+        this.loader     = loader;
+        this.cacheBytes = cacheBytes;
+
+        cache      = new LinkedHashMap<>(INITIAL_CACHE_CAPACITY, LOAD_FACTOR, true);
+        renderLock = new ReentrantLock();
+        results    = loader.load();
+        try
+        {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        }
+        catch(final IOException | RuntimeException e)
+        {
+            try
+            {
+                results.close();
+            }
+            catch(final IOException closeFailure)
+            {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        server.setExecutor(executor);
+        server.createContext(SECTIONS_PATH, this::handle);
+        server.createContext(NAMES_PATH, this::handle);
+    }
+
+    /**
+     * Starts answering requests in the background.
+     */
+    public void start()
+    {
+        server.start();
+    }
+
+    /**
+     * @return The port the server listens on.
+     */
+    public int getPort()
+    {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Collects the sections again and empties the cache. Requests keep
+     * being answered from the previous results until the new ones are
+     * ready. If collecting fails, the previous results are kept.
+     *
+     * @throws IOException If the sections cannot be collected.
+     */
+    public void reload() throws IOException
+    {
+        final ReportResults loaded;
+        final ReportResults previous;
+
+        loaded = loader.load();
+
+        renderLock.lock();
+        try
+        {
+            previous = results;
+            results  = loaded;
+            synchronized(cache)
+            {
+                cache.clear();
+                cachedBytes = 0;
+            }
+        }
+        finally
+        {
+            renderLock.unlock();
+        }
+
+        previous.close();
+    }
+
+    /**
+     * Stops the server and releases the collected results.
+     *
+     * @throws IOException If the results cannot be released.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        server.stop(STOP_DELAY);
+        executor.close();
+        results.close();
+    }
+
+    /*
+     * Answers one request, always closing the exchange.
+     */
+    private void handle(final HttpExchange exchange) throws IOException
+    {
+        try(exchange)
+        {
+            final String path;
+
+            if(!exchange.getRequestMethod().equals("GET"))
+            {
+                respond(exchange, BAD_METHOD, "Only GET is supported\n");
+                return;
+            }
+
+            path = exchange.getRequestURI().getPath();
+            if(path.equals(SECTIONS_PATH) || path.equals(SECTIONS_PATH + "/"))
+            {
+                respond(exchange, OK, String.join("\n", sectionNames()) + "\n");
+            }
+            else if(path.startsWith(SECTIONS_PATH + "/"))
+            {
+                respondWithSection(exchange, path.substring(SECTIONS_PATH.length() + 1));
+            }
+            else if(path.equals(NAMES_PATH))
+            {
+                respondWithNames(exchange);
+            }
+            else
+            {
+                respond(exchange, NOT_FOUND, "Unknown path: " + path + "\n");
+            }
+        }
+    }
+
+    /*
+     * Answers a request for one section or a page of it, from the cache or
+     * by rendering the page into the response.
+     */
+    private void respondWithSection(final HttpExchange exchange,
+                                    final String name) throws IOException
+    {
+        final Map<String, String> parameters;
+        final int                 offset;
+        final int                 limit;
+        final String              key;
+        byte[]                    page;
+
+        parameters = parameters(exchange.getRequestURI().getRawQuery());
+        try
+        {
+            offset = Integer.parseInt(parameters.getOrDefault("offset", "0"));
+            limit  = Integer.parseInt(parameters.getOrDefault("limit", String.valueOf(Integer.MAX_VALUE)));
+        }
+        catch(final NumberFormatException e)
+        {
+            respond(exchange, BAD_REQUEST, "offset and limit must be numbers\n");
+            return;
+        }
+        if(offset < 0 || limit < 0)
+        {
+            respond(exchange, BAD_REQUEST, "offset and limit must not be negative\n");
+            return;
+        }
+
+        key  = name + "?offset=" + offset + "&limit=" + limit;
+        page = cached(key);
+        if(page == null)
+        {
+            renderLock.lock();
+            try
+            {
+                page = cached(key);
+                if(page == null)
+                {
+                    page = render(name, offset, limit);
+                    if(page != null && page.length <= cacheBytes)
+                    {
+                        cache(key, page);
+                    }
+                }
+            }
+            finally
+            {
+                renderLock.unlock();
+            }
+        }
+
+        if(page == null)
+        {
+            respond(exchange, NOT_FOUND, "Unknown section: " + name + "\n");
+            return;
+        }
+        respond(exchange, OK, page);
+    }
+
+    /*
+     * Answers an ad-hoc query over the names of the served index.
+     */
+    private void respondWithNames(final HttpExchange exchange) throws IOException
+    {
+        final Map<String, String> parameters;
+        final String              startsWith;
+        final String              endsWith;
+        final String              contains;
+        final MatchMode           mode;
+        final List<String>        matches;
+
+        parameters = parameters(exchange.getRequestURI().getRawQuery());
+        startsWith = parameters.get("starts-with");
+        endsWith   = parameters.get("ends-with");
+        contains   = parameters.get("contains");
+        if((startsWith != null ? 1 : 0) + (endsWith != null ? 1 : 0) + (contains != null ? 1 : 0) != 1)
+        {
+            respond(exchange, BAD_REQUEST, "Give exactly one of starts-with, ends-with and contains\n");
+            return;
+        }
+        try
+        {
+            mode = MatchMode.parse(parameters.getOrDefault("match", "exact"));
+        }
+        catch(final IllegalArgumentException e)
+        {
+            respond(exchange, BAD_REQUEST, "match must be exact, case-insensitive or accent-insensitive\n");
+            return;
+        }
+
+        renderLock.lock();
+        try
+        {
+            final CountryIndex index;
+
+            index = index();
+            if(index == null)
+            {
+                matches = null;
+            }
+            else if(startsWith != null)
+            {
+                matches = index.startingWith(startsWith, mode);
+            }
+            else if(endsWith != null)
+            {
+                matches = index.endingWith(endsWith, mode);
+            }
+            else
+            {
+                matches = index.containing(contains, mode);
+            }
+        }
+        finally
+        {
+            renderLock.unlock();
+        }
+
+        if(matches == null)
+        {
+            respond(exchange, NOT_FOUND, "No served section indexes the names\n");
+            return;
+        }
+        respond(exchange, OK, matches.isEmpty() ? "" : String.join("\n", matches) + "\n");
+    }
+
+    /*
+     * Renders the lines [offset, offset + limit) of a section, or returns
+     * null if there is no such section. Called with the render lock held.
+     */
+    private byte[] render(final String name,
+                          final int offset,
+                          final int limit) throws IOException
+    {
+        final Report<?>        report;
+        final PageOutputStream page;
+
+        report = find(name);
+        if(report == null)
+        {
+            return null;
+        }
+
+        page = new PageOutputStream(offset, limit);
+        try(final ReportWriter writer = new ReportWriter(page))
+        {
+            results.write(report, writer);
+        }
+        catch(final PageComplete e)
+        {
+            // The page is complete; the rest of the section is not needed.
+        }
+
+        return page.toByteArray();
+    }
+
+    /*
+     * Returns a cached page, or null on a cache miss.
+     */
+    private byte[] cached(final String key)
+    {
+        synchronized(cache)
+        {
+            return cache.get(key);
+        }
+    }
+
+    /*
+     * Caches a page, evicting the least recently used pages until the
+     * cache fits its byte budget again.
+     */
+    private void cache(final String key,
+                       final byte[] page)
+    {
+        synchronized(cache)
+        {
+            final Iterator<byte[]> eldest;
+            final byte[]           replaced;
+
+            replaced = cache.put(key, page);
+            cachedBytes += page.length - (replaced == null ? 0 : replaced.length);
+
+            eldest = cache.values().iterator();
+            while(cachedBytes > cacheBytes && eldest.hasNext())
+            {
+                cachedBytes -= eldest.next().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    /*
+     * Returns the names of the served sections, in output order.
+     */
+    private List<String> sectionNames()
+    {
+        renderLock.lock();
+        try
+        {
+            return results.getReports()
+                    .stream()
+                    .map(Report::getName)
+                    .toList();
+        }
+        finally
+        {
+            renderLock.unlock();
+        }
+    }
+
+    /*
+     * Finds a served section by name, or returns null. Called with the
+     * render lock held.
+     */
+    private Report<?> find(final String name)
+    {
+        for(final Report<?> report : results.getReports())
+        {
+            if(report.getName().equals(name))
+            {
+                return report;
+            }
+        }
+
+        return null;
+    }
+
+    /*
+     * Returns the index shared by the served text sections, or null if no
+     * served section keeps one. Called with the render lock held.
+     */
+    private CountryIndex index()
+    {
+        for(final Report<?> report : results.getReports())
+        {
+            if(results.get(report) instanceof final CountryIndex index)
+            {
+                return index;
+            }
+        }
+
+        return null;
+    }
+
+    /*
+     * Decodes the parameters of a query string.
+     */
+    private static Map<String, String> parameters(final String query)
+    {
+        final Map<String, String> parameters;
+
+        parameters = new HashMap<>();
+        if(query == null)
+        {
+            return parameters;
+        }
+
+        for(final String pair : query.split("&"))
+        {
+            final int separator;
+
+            separator = pair.indexOf('=');
+            if(separator > 0)
+            {
+                parameters.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                               URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+
+        return parameters;
+    }
+
+    /*
+     * Sends a plain text response.
+     */
+    private static void respond(final HttpExchange exchange,
+                                final int status,
+                                final String body) throws IOException
+    {
+        respond(exchange, status, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /*
+     * Sends a plain text response that is already encoded.
+     */
+    private static void respond(final HttpExchange exchange,
+                                final int status,
+                                final byte[] body) throws IOException
+    {
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, body.length);
+        try(final OutputStream out = exchange.getResponseBody())
+        {
+            out.write(body);
+        }
+    }
+
+    /*
+     * Thrown by a page once its last line is written, to stop rendering the
+     * rest of the section.
+     */
+    private static final class PageComplete extends IOException
+    {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        PageComplete()
+        {
+            super("Page complete");
+        }
+    }
+
+    /*
+     * Keeps the lines [offset, offset + limit) of what is written to it,
+     * each ending with a newline, and drops the rest. Carriage returns are
+     * dropped, so pages look the same whatever the platform's line
+     * separator.
+     */
+    private static final class PageOutputStream extends OutputStream
+    {
+        private final ByteArrayOutputStream page;
+        private final long                  firstLine;
+        private final long                  endLine;
+
+        private long    line;
+        private boolean lineOpen;
+
+        PageOutputStream(final int offset,
+                         final int limit)
+        {
+            page      = new ByteArrayOutputStream();
+            firstLine = offset;
+            endLine   = (long) offset + limit;
+        }
+
+        @Override
+        public void write(final int b) throws IOException
+        {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] bytes,
+                          final int offset,
+                          final int length) throws IOException
+        {
+            final int end;
+            int       start;
+
+            end   = offset + length;
+            start = offset;
+            while(start < end)
+            {
+                int stop;
+
+                if(line >= endLine)
+                {
+                    throw new PageComplete();
+                }
+
+                stop = start;
+                while(stop < end && bytes[stop] != '\n' && bytes[stop] != '\r')
+                {
+                    stop++;
+                }
+
+                if(line >= firstLine && stop > start)
+                {
+                    page.write(bytes, start, stop - start);
+                    lineOpen = true;
+                }
+                if(stop < end && bytes[stop] == '\n')
+                {
+                    if(line >= firstLine)
+                    {
+                        page.write('\n');
+                        lineOpen = false;
+                    }
+                    line++;
+                }
+                start = stop + 1;
+            }
+        }
+
+        /*
+         * Returns the page, ending its last line if the section did not.
+         */
+        byte[] toByteArray()
+        {
+            if(lineOpen)
+            {
+                page.write('\n');
+                lineOpen = false;
+            }
+
+            return page.toByteArray();
+        }
+    }
+}
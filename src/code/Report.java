@@ -0,0 +1,109 @@
+import java.io.IOException;
+import java.util.stream.Collector;
+
+
+/**
+ * One section of the country report. A section has a header, a collector
+ * that accumulates its result one country name at a time, and a finisher
+ * that writes the result below the header.
+ * <p>
+ * Sections that return the same collector instance share a single
+ * accumulator, so related sections (for example the ascending and
+ * descending lists) are computed once.
+ *
+ * @param <R> The type of the collected result.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public interface Report<R>
+{
+    /**
+     * @return The name used to select this section on the command line.
+     */
+    String getName();
+
+    /**
+     * @return The text written before the section's result.
+     */
+    String getHeader();
+
+    /**
+     * @return The collector computing this section's result.
+     */
+    Collector<String, ?, R> getCollector();
+
+    /**
+     * Writes the collected result of this section.
+     *
+     * @param result The collected result.
+     * @param writer The report output.
+     * @throws IOException If writing fails.
+     */
+    void write(R result,
+               ReportWriter writer) throws IOException;
+
+    /**
+     * Writes the collected result of a section.
+     *
+     * @param <R> The type of the collected result.
+     */
+    @FunctionalInterface
+    interface Finisher<R>
+    {
+        /**
+         * Writes the collected result of a section.
+         *
+         * @param result The collected result.
+         * @param writer The report output.
+         * @throws IOException If writing fails.
+         */
+        void write(R result,
+                   ReportWriter writer) throws IOException;
+    }
+
+    /**
+     * Creates a section from its parts.
+     *
+     * @param name      The name used on the command line.
+     * @param header    The text written before the result.
+     * @param collector The collector computing the result.
+     * @param finisher  Writes the result.
+     * @param <R>       The type of the collected result.
+     * @return The section.
+     */
+    static <R> Report<R> of(final String name,
+                            final String header,
+                            final Collector<String, ?, R> collector,
+                            final Finisher<R> finisher)
+    {
+        return new Report<>()
+        {
+            @Override
+            public String getName()
+            {
+                return name;
+            }
+
+            @Override
+            public String getHeader()
+            {
+                return header;
+            }
+
+            @Override
+            public Collector<String, ?, R> getCollector()
+            {
+                return collector;
+            }
+
+            @Override
+            public void write(final R result,
+                              final ReportWriter writer) throws IOException
+            {
+                finisher.write(result, writer);
+            }
+        };
+    }
+}
@@ -0,0 +1,404 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+
+/**
+ * Writes a report one section at a time into part files and remembers
+ * which sections are done, so a run that fails partway through can be
+ * resumed from the last completed section instead of starting over.
+ * <p>
+ * Each part is written, forced to disk and only then recorded in a
+ * manifest with its size and CRC-32 checksum. The manifest is replaced
+ * atomically after every section. It starts with a key describing the run,
+ * such as the input file's size, modification time and checksum and the
+ * report settings; a run with a different key starts from scratch. When the
+ * checkpoint is opened, the recorded parts are checked against their
+ * checksums and the first damaged or missing part, and every part after
+ * it, is written again.
+ * <p>
+ * Once every section is done, the parts are published: concatenated into
+ * a temporary file that is moved over the output file, or each moved to a
+ * file of its own. Readers never see a partly written report.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class ReportCheckpoint
+{
+    private static final String MANIFEST_NAME    = "manifest";
+    private static final String PART_SUFFIX      = ".part";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final char   FIELD_SEPARATOR  = '\t';
+    private static final int    CHECKSUM_RADIX   = 16;
+    private static final int    BUFFER_SIZE      = 1 << 16;
+
+    private final Path              directory;
+    private final String            runKey;
+    private final Map<String, Part> completed;
+
+    /**
+     * Writes the content of one part.
+     */
+    @FunctionalInterface
+    public interface PartWriter
+    {
+        /**
+         * Writes a section's content. The stream may be closed by the
+         * writer; it is closed in any case once the writer returns.
+         *
+         * @param out The part file.
+         * @throws IOException If writing fails.
+         */
+        void write(OutputStream out) throws IOException;
+    }
+
+    /*
+     * A completed part, as recorded in the manifest.
+     */
+    private record Part(String section,
+                        long size,
+                        long checksum)
+    {
+    }
+
+    /**
+     * Opens the checkpoint kept in a directory, creating the directory if
+     * needed and keeping every completed part that is still intact.
+     *
+     * @param directory The directory holding the parts and the manifest.
+     * @param runKey    Describes the run; parts of another run are
+     *                  discarded.
+     * @throws IOException If the directory cannot be read or created.
+     */
+    public ReportCheckpoint(final Path directory,
+                            final String runKey) throws IOException
+    {
+        this.directory = directory;
+        this.runKey    = runKey.replace('\n', ' ');
+
+        completed = new LinkedHashMap<>();
+        Files.createDirectories(directory);
+        readManifest();
+    }
+
+    /**
+     * @param section A section name.
+     * @return True if the section's part was completed by this run or an
+     *         earlier attempt of it.
+     */
+    public boolean isComplete(final String section)
+    {
+        return completed.containsKey(section);
+    }
+
+    /**
+     * @param sections The section names, in output order.
+     * @return True if every section is complete.
+     */
+    public boolean isComplete(final List<String> sections)
+    {
+        return completed.keySet().containsAll(sections);
+    }
+
+    /**
+     * Writes the part of one section and records it as complete.
+     *
+     * @param section The section name.
+     * @param writer  Writes the section's content.
+     * @throws IOException If the part cannot be written or recorded. The
+     *                     section is then not complete.
+     */
+    public void write(final String section,
+                      final PartWriter writer) throws IOException
+    {
+        final Path  part;
+        final CRC32 checksum;
+
+        part     = partPath(section);
+        checksum = new CRC32();
+        completed.remove(section);
+
+        try(final OutputStream out = new CheckedOutputStream(Files.newOutputStream(part,
+                                                                                   StandardOpenOption.CREATE,
+                                                                                   StandardOpenOption.TRUNCATE_EXISTING,
+                                                                                   StandardOpenOption.WRITE),
+                                                             checksum))
+        {
+            writer.write(out);
+        }
+        force(part);
+
+        completed.put(section, new Part(section, Files.size(part), checksum.getValue()));
+        writeManifest();
+    }
+
+    /**
+     * Publishes the parts as one file, concatenated in the given order.
+     *
+     * @param sections   The section names, in output order.
+     * @param outputPath The file to publish.
+     * @throws IOException If a section is not complete or the file cannot
+     *                     be written.
+     */
+    public void publish(final List<String> sections,
+                        final Path outputPath) throws IOException
+    {
+        final Path temporaryPath;
+
+        checkComplete(sections);
+        temporaryPath = outputPath.resolveSibling(outputPath.getFileName() + TEMPORARY_SUFFIX);
+
+        try(final FileChannel out = FileChannel.open(temporaryPath,
+                                                     StandardOpenOption.CREATE,
+                                                     StandardOpenOption.TRUNCATE_EXISTING,
+                                                     StandardOpenOption.WRITE))
+        {
+            for(final String section : sections)
+            {
+                try(final FileChannel in = FileChannel.open(partPath(section), StandardOpenOption.READ))
+                {
+                    long position;
+
+                    position = 0;
+                    while(position < in.size())
+                    {
+                        position += in.transferTo(position, in.size() - position, out);
+                    }
+                }
+            }
+            out.force(true);
+        }
+
+        Files.move(temporaryPath, outputPath,
+                   StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Publishes each part as a file of its own.
+     *
+     * @param outputPaths The file to publish for each section name.
+     * @throws IOException If a section is not complete or a part cannot
+     *                     be moved.
+     */
+    public void publishEach(final Map<String, Path> outputPaths) throws IOException
+    {
+        checkComplete(List.copyOf(outputPaths.keySet()));
+
+        for(final Map.Entry<String, Path> entry : outputPaths.entrySet())
+        {
+            Files.move(partPath(entry.getKey()), entry.getValue(),
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Deletes the parts, the manifest and the directory, once the report
+     * has been published.
+     *
+     * @throws IOException If a file cannot be deleted.
+     */
+    public void delete() throws IOException
+    {
+        completed.clear();
+        deleteContents();
+        Files.deleteIfExists(directory);
+    }
+
+    /*
+     * Reads the manifest and keeps the leading parts that are intact. Any
+     * other file in the directory is deleted.
+     */
+    private void readManifest() throws IOException
+    {
+        final Path         manifest;
+        final List<String> lines;
+
+        manifest = directory.resolve(MANIFEST_NAME);
+        lines    = Files.exists(manifest) ? Files.readAllLines(manifest, StandardCharsets.UTF_8) : List.of();
+
+        if(!lines.isEmpty() && lines.get(0).equals(runKey))
+        {
+            for(final String line : lines.subList(1, lines.size()))
+            {
+                final Part part;
+
+                part = parse(line);
+                if(part == null || !isIntact(part))
+                {
+                    break;
+                }
+                completed.put(part.section(), part);
+            }
+        }
+
+        deleteContents();
+        if(!completed.isEmpty())
+        {
+            writeManifest();
+        }
+    }
+
+    /*
+     * Deletes every file in the directory except the parts still kept.
+     */
+    private void deleteContents() throws IOException
+    {
+        try(final Stream<Path> files = Files.list(directory))
+        {
+            for(final Path file : files.toList())
+            {
+                if(!isKeptPart(file))
+                {
+                    Files.delete(file);
+                }
+            }
+        }
+        catch(final UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    /*
+     * Returns true if the file is the part of a completed section.
+     */
+    private boolean isKeptPart(final Path file)
+    {
+        for(final String section : completed.keySet())
+        {
+            if(file.equals(partPath(section)))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /*
+     * Returns true if a recorded part exists with its recorded size and
+     * checksum.
+     */
+    private boolean isIntact(final Part part) throws IOException
+    {
+        final Path   path;
+        final CRC32  checksum;
+        final byte[] buffer;
+
+        path = partPath(part.section());
+        if(!Files.isRegularFile(path) || Files.size(path) != part.size())
+        {
+            return false;
+        }
+
+        checksum = new CRC32();
+        buffer   = new byte[BUFFER_SIZE];
+        try(final InputStream in = Files.newInputStream(path))
+        {
+            int read;
+
+            while((read = in.read(buffer)) > 0)
+            {
+                checksum.update(buffer, 0, read);
+            }
+        }
+
+        return checksum.getValue() == part.checksum();
+    }
+
+    /*
+     * Replaces the manifest with the run key and the completed parts.
+     */
+    private void writeManifest() throws IOException
+    {
+        final Path          manifest;
+        final Path          temporaryPath;
+        final StringBuilder text;
+
+        manifest      = directory.resolve(MANIFEST_NAME);
+        temporaryPath = directory.resolve(MANIFEST_NAME + TEMPORARY_SUFFIX);
+        text          = new StringBuilder(runKey).append('\n');
+        for(final Part part : completed.values())
+        {
+            text.append(part.section())
+                    .append(FIELD_SEPARATOR)
+                    .append(part.size())
+                    .append(FIELD_SEPARATOR)
+                    .append(Long.toString(part.checksum(), CHECKSUM_RADIX))
+                    .append('\n');
+        }
+
+        Files.writeString(temporaryPath, text, StandardCharsets.UTF_8);
+        force(temporaryPath);
+        Files.move(temporaryPath, manifest,
+                   StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /*
+     * Throws unless every section is complete.
+     */
+    private void checkComplete(final List<String> sections) throws IOException
+    {
+        for(final String section : sections)
+        {
+            if(!isComplete(section))
+            {
+                throw new IOException("Section was not written: " + section);
+            }
+        }
+    }
+
+    /*
+     * Returns the part file of a section.
+     */
+    private Path partPath(final String section)
+    {
+        return directory.resolve(section + PART_SUFFIX);
+    }
+
+    /*
+     * Parses one manifest line, or returns null if it is malformed.
+     */
+    private static Part parse(final String line)
+    {
+        final String[] fields;
+
+        fields = line.split(String.valueOf(FIELD_SEPARATOR));
+        if(fields.length != 3)
+        {
+            return null;
+        }
+
+        try
+        {
+            return new Part(fields[0],
+                            Long.parseLong(fields[1]),
+                            Long.parseLong(fields[2], CHECKSUM_RADIX));
+        }
+        catch(final NumberFormatException e)
+        {
+            return null;
+        }
+    }
+
+    /*
+     * Forces a file's content to disk.
+     */
+    private static void force(final Path path) throws IOException
+    {
+        try(final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE))
+        {
+            channel.force(true);
+        }
+    }
+}
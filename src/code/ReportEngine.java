@@ -0,0 +1,215 @@
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+
+/**
+ * Runs a set of {@link Report} sections in one shared pass over the
+ * country names. Each distinct collector is run once, even when several
+ * sections share it, and the result is a {@link ReportResults} ready to be
+ * written in section order. The engine also counts the names scanned.
+ * <p>
+ * Every name is added once to a {@link NamePool}, one per chunk of the
+ * input, and the containers that implement {@link PooledNames} are given
+ * the name's id instead of the name, so each distinct name is stored once
+ * however many sections hold it. Sections using {@link NamePool#collector()}
+ * receive that pool. When chunks are combined, their pools are combined
+ * once and every pooled container is appended through the resulting id
+ * mapping.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class ReportEngine
+{
+    private final List<Report<?>>                  reports;
+    private final int[]                            collectorIndices;
+    private final List<Supplier<Object>>           suppliers;
+    private final List<BiConsumer<Object, String>> accumulators;
+    private final List<BinaryOperator<Object>>     combiners;
+    private final List<Function<Object, Object>>   finishers;
+    private final int                              poolIndex;
+    private final int                              rowsIndex;
+
+    /**
+     * Creates an engine for the given sections.
+     *
+     * @param reports The sections to compute, in output order.
+     */
+    public ReportEngine(final List<Report<?>> reports)
+    {
+        final Map<Collector<?, ?, ?>, Integer> indices;
+
+        this.reports = List.copyOf(reports);
+
+        indices          = new IdentityHashMap<>();
+        collectorIndices = new int[reports.size()];
+        suppliers        = new ArrayList<>();
+        accumulators     = new ArrayList<>();
+        combiners        = new ArrayList<>();
+        finishers        = new ArrayList<>();
+
+        poolIndex = addCollector(NamePool.collector());
+        rowsIndex = addCollector(Collectors.counting());
+        indices.put(NamePool.collector(), poolIndex);
+        for(int i = 0; i < reports.size(); i++)
+        {
+            collectorIndices[i] = indices.computeIfAbsent(reports.get(i).getCollector(),
+                                                          this::addCollector);
+        }
+    }
+
+    /*
+     * Caches the functions of a new distinct collector and returns its index.
+     */
+    private int addCollector(final Collector<?, ?, ?> collector)
+    {
+        final Collector<String, Object, Object> erased;
+
+        erased = erase(collector);
+        suppliers.add(erased.supplier());
+        accumulators.add(erased.accumulator());
+        combiners.add(erased.combiner());
+        finishers.add(erased.finisher());
+
+        return suppliers.size() - 1;
+    }
+
+    /*
+     * Drops the collector's type arguments so collectors of different
+     * types can be driven from one array of containers.
+     */
+    @SuppressWarnings("unchecked")
+    private static Collector<String, Object, Object> erase(final Collector<?, ?, ?> collector)
+    {
+        return (Collector<String, Object, Object>) collector;
+    }
+
+    /**
+     * @return The sections run by this engine, in output order.
+     */
+    public List<Report<?>> getReports()
+    {
+        return reports;
+    }
+
+    /**
+     * Returns a collector that feeds every name to every section once.
+     * It keeps the encounter order, so it may run on a parallel stream.
+     *
+     * @return A collector producing the results of every section.
+     */
+    public Collector<String, Object[], ReportResults> collector()
+    {
+        return Collector.of(this::newContainers,
+                            this::accept,
+                            this::combine,
+                            this::finish);
+    }
+
+    /*
+     * Creates one empty container per distinct collector, the pool and the
+     * row counter included, and has the pooled containers share the pool.
+     */
+    private Object[] newContainers()
+    {
+        final Object[] containers;
+
+        containers = new Object[suppliers.size()];
+        for(int i = 0; i < suppliers.size(); i++)
+        {
+            containers[i] = suppliers.get(i).get();
+        }
+        for(final Object container : containers)
+        {
+            if(container instanceof final PooledNames<?> pooled)
+            {
+                pooled.usePool((NamePool) containers[poolIndex]);
+            }
+        }
+
+        return containers;
+    }
+
+    /*
+     * Adds one name to the pool and offers it to every other container,
+     * by id to the pooled ones.
+     */
+    private void accept(final Object[] containers,
+                        final String country)
+    {
+        final int id;
+
+        id = ((NamePool) containers[poolIndex]).add(country);
+        for(int i = 0; i < accumulators.size(); i++)
+        {
+            if(containers[i] instanceof final PooledNames<?> pooled)
+            {
+                pooled.addId(id);
+            }
+            else if(i != poolIndex)
+            {
+                accumulators.get(i).accept(containers[i], country);
+            }
+        }
+    }
+
+    /*
+     * Merges the containers of the following chunk into the first,
+     * combining the pools once and appending the pooled containers through
+     * the mapping of the second pool's ids.
+     */
+    private Object[] combine(final Object[] first,
+                             final Object[] second)
+    {
+        final int[] poolIds;
+
+        poolIds = ((NamePool) first[poolIndex]).combine((NamePool) second[poolIndex]);
+        for(int i = 0; i < combiners.size(); i++)
+        {
+            if(first[i] instanceof PooledNames<?>)
+            {
+                append(first[i], second[i], poolIds);
+            }
+            else if(i != poolIndex)
+            {
+                first[i] = combiners.get(i).apply(first[i], second[i]);
+            }
+        }
+
+        return first;
+    }
+
+    /*
+     * Appends a pooled container to another of the same collector.
+     */
+    @SuppressWarnings("unchecked")
+    private static <C extends PooledNames<C>> void append(final Object first,
+                                                          final Object second,
+                                                          final int[] poolIds)
+    {
+        ((C) first).append((C) second, poolIds);
+    }
+
+    /*
+     * Turns every container into its section result.
+     */
+    private ReportResults finish(final Object[] containers)
+    {
+        final Object[] results;
+
+        results = new Object[finishers.size()];
+        for(int i = 0; i < finishers.size(); i++)
+        {
+            results[i] = finishers.get(i).apply(containers[i]);
+        }
+
+        return new ReportResults(reports, collectorIndices, results,
+                                 (Long) results[rowsIndex]);
+    }
+}
@@ -0,0 +1,155 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+
+/**
+ * Appends {@link SectionMetrics} to a file as JSON lines, one object per
+ * line, flushing after each so the file can be followed while reports are
+ * being generated. Safe to share between the threads of a batch run.
+ * <p>
+ * Heap allocation is measured with the JVM's per-thread allocation
+ * counters. A measurement covers only the thread that took it, except for
+ * parallel passes, which are measured across the whole JVM. The counters
+ * cannot be read on a virtual thread, where the allocation is recorded as
+ * unknown; batch runs that record metrics therefore process their inputs
+ * on platform threads.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class ReportMetrics implements Closeable
+{
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private final Writer out;
+
+    /**
+     * The time and allocation counters at the start of a measurement.
+     *
+     * @param nanos          The value of {@link System#nanoTime()}.
+     * @param allocatedBytes The allocation counter, or -1 if unsupported.
+     * @param wholeJvm       Whether allocation is counted for every thread.
+     */
+    public record Snapshot(long nanos,
+                           long allocatedBytes,
+                           boolean wholeJvm)
+    {
+        /**
+         * @return The nanoseconds elapsed since this snapshot.
+         */
+        public long elapsedNanos()
+        {
+            return System.nanoTime() - nanos;
+        }
+
+        /**
+         * @return The bytes allocated since this snapshot, or -1 if they
+         *         cannot be measured.
+         */
+        public long allocatedBytesSince()
+        {
+            final long now;
+
+            now = ReportMetrics.allocatedBytes(wholeJvm);
+            if(allocatedBytes < 0 || now < 0)
+            {
+                return -1;
+            }
+
+            return now - allocatedBytes;
+        }
+    }
+
+    /**
+     * Opens a metrics file, appending to any earlier metrics.
+     *
+     * @param metricsPath The JSON lines file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public ReportMetrics(final Path metricsPath) throws IOException
+    {
+        this(Files.newOutputStream(metricsPath,
+                                   StandardOpenOption.CREATE,
+                                   StandardOpenOption.APPEND,
+                                   StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Writes metrics to an already opened stream, which is closed together
+     * with this object.
+     *
+     * @param out The stream to write the JSON lines to.
+     */
+    public ReportMetrics(final OutputStream out)
+    {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Starts a measurement on the current thread.
+     *
+     * @param wholeJvm Whether allocation is counted for every thread, for
+     *                 work spread over a thread pool.
+     * @return The starting counters.
+     */
+    public static Snapshot start(final boolean wholeJvm)
+    {
+        return new Snapshot(System.nanoTime(), allocatedBytes(wholeJvm), wholeJvm);
+    }
+
+    /**
+     * Appends one line of metrics.
+     *
+     * @param metrics The metrics to write.
+     * @throws IOException If writing fails.
+     */
+    public synchronized void record(final SectionMetrics metrics) throws IOException
+    {
+        out.write(metrics.toJson());
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Closes the metrics file.
+     *
+     * @throws IOException If closing fails.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        out.close();
+    }
+
+    /*
+     * Reads the allocation counter, returning -1 when it is unavailable,
+     * for example on a virtual thread.
+     */
+    private static long allocatedBytes(final boolean wholeJvm)
+    {
+        if(THREADS == null)
+        {
+            return -1;
+        }
+
+        return wholeJvm ? THREADS.getTotalThreadAllocatedBytes() : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /*
+     * Returns the JVM's thread bean if it can count allocated bytes.
+     */
+    private static com.sun.management.ThreadMXBean threadBean()
+    {
+        if(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean &&
+           bean.isThreadAllocatedMemorySupported())
+        {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+
+        return null;
+    }
+}
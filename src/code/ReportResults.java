@@ -0,0 +1,171 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+
+
+/**
+ * The collected results of the sections run by a {@link ReportEngine}.
+ * Results that hold resources, such as the files spilled by an
+ * {@link ExternalSorter}, are released when this object is closed.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class ReportResults implements Closeable
+{
+    private final List<Report<?>> reports;
+    private final int[]           collectorIndices;
+    private final Object[]        results;
+    private final long            rowsScanned;
+
+    /*
+     * Created by ReportEngine once every name has been collected.
+     */
+    ReportResults(final List<Report<?>> reports,
+                  final int[] collectorIndices,
+                  final Object[] results,
+                  final long rowsScanned)
+    {
+        this.reports          = reports;
+        this.collectorIndices = collectorIndices;
+        this.results          = results;
+        this.rowsScanned      = rowsScanned;
+    }
+
+    /**
+     * Returns the collected result of one of the engine's sections.
+     *
+     * @param report The section.
+     * @param <R>    The type of the section's result.
+     * @return The section's result.
+     * @throws IllegalArgumentException If the engine did not run the section.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R get(final Report<R> report)
+    {
+        final int index;
+
+        index = reports.indexOf(report);
+        if(index < 0)
+        {
+            throw new IllegalArgumentException("Section was not run: " + report.getName());
+        }
+
+        return (R) results[collectorIndices[index]];
+    }
+
+    /**
+     * @return The sections, in output order.
+     */
+    public List<Report<?>> getReports()
+    {
+        return reports;
+    }
+
+    /**
+     * @return The number of names the sections were computed over.
+     */
+    public long getRowsScanned()
+    {
+        return rowsScanned;
+    }
+
+    /**
+     * Writes one section, header first, recording what it cost when
+     * metrics are given.
+     *
+     * @param report  The section.
+     * @param writer  The output.
+     * @param input   The country file the results were built from.
+     * @param metrics Receives the section's {@link SectionMetrics}, or null
+     *                to record none.
+     * @throws IOException If writing fails.
+     */
+    public void writeSection(final Report<?> report,
+                             final ReportWriter writer,
+                             final String input,
+                             final ReportMetrics metrics) throws IOException
+    {
+        final ReportMetrics.Snapshot start;
+        final long                   startBytes;
+        final long                   startRows;
+
+        start      = metrics == null ? null : ReportMetrics.start(false);
+        startBytes = writer.getBytesWritten();
+        startRows  = writer.getRowsWritten();
+
+        writer.write(report.getHeader());
+        write(report, writer);
+        if(metrics != null)
+        {
+            metrics.record(new SectionMetrics(input,
+                                              "write",
+                                              report.getName(),
+                                              start.elapsedNanos(),
+                                              rowsScanned,
+                                              writer.getRowsWritten() - startRows,
+                                              writer.getBytesWritten() - startBytes,
+                                              start.allocatedBytesSince()));
+        }
+    }
+
+    /**
+     * Writes one section's result, without its header.
+     *
+     * @param report The section.
+     * @param writer The output.
+     * @param <R>    The type of the section's result.
+     * @throws IOException If writing fails.
+     */
+    public <R> void write(final Report<R> report,
+                           final ReportWriter writer) throws IOException
+    {
+        report.write(get(report), writer);
+    }
+
+    /**
+     * Releases every result that holds resources. A result that fails to
+     * close does not stop the others from being released.
+     *
+     * @throws IOException If a result cannot be released; the failures of
+     *                     any later results are suppressed by it.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        Exception failure;
+
+        failure = null;
+        for(final Object result : results)
+        {
+            if(result instanceof Closeable closeable)
+            {
+                try
+                {
+                    closeable.close();
+                }
+                catch(final IOException | RuntimeException e)
+                {
+                    if(failure == null)
+                    {
+                        failure = e;
+                    }
+                    else
+                    {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+
+        if(failure instanceof IOException e)
+        {
+            throw e;
+        }
+        if(failure != null)
+        {
+            throw (RuntimeException) failure;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * The settings shared by the built-in report sections.
+ *
+ * @param sortMemoryBudget   The estimated bytes of names the shared sorter
+ *                           keeps in memory before spilling.
+ * @param longNameMinLength  Names longer than this are listed as long.
+ * @param shortNameMaxLength Names shorter than this are listed as short.
+ * @param minNameLength      The length every name is checked to exceed.
+ * @param matchMode          How the prefix, suffix and substring sections
+ *                           compare names, or null to keep each section's
+ *                           own mode.
+ * @param topCount           The number of names listed by the top-k
+ *                           sections and words by the top-words section.
+ * @param minWordCount       The fewest words a name listed by the
+ *                           min-words section has.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public record ReportSettings(long sortMemoryBudget,
+                             int longNameMinLength,
+                             int shortNameMaxLength,
+                             int minNameLength,
+                             MatchMode matchMode,
+                             int topCount,
+                             int minWordCount)
+{
+    /**
+     * Creates the default settings with the given sort memory budget.
+     *
+     * @param sortMemoryBudget The memory budget of the shared sorter.
+     * @return The settings.
+     */
+    public static ReportSettings withDefaults(final long sortMemoryBudget)
+    {
+        return new ReportSettings(sortMemoryBudget,
+                                  Reports.LONG_COUNTRY_NAME_MIN_LENGTH,
+                                  Reports.SHORT_COUNTRY_NAME_MAX_LENGTH,
+                                  Reports.COUNTRY_NAMES_MIN_LENGTH_3,
+                                  null,
+                                  Reports.TOP_COUNT,
+                                  Reports.MIN_WORD_COUNT);
+    }
+}
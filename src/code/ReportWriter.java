@@ -0,0 +1,457 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.Iterator;
+import java.util.Locale;
+
+
+/**
+ * Writes the sections of a country report to a single output file.
+ * The file is opened once, truncated, and every section is streamed
+ * through one large buffer until the writer is closed.
+ * <p>
+ * Text is encoded to UTF-8 straight into the byte buffer, with a fast path
+ * for ASCII characters. Unpaired surrogates are written as {@code '?'}, as
+ * the JDK's UTF-8 encoder does. The upper-casing, number and code point
+ * methods write their output without creating a string per call, so
+ * sections can transform every name on the way out without allocating.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class ReportWriter implements Closeable
+{
+    private static final int    BUFFER_SIZE       = 1 << 16;
+    private static final int    MAX_INT_DIGITS    = 11;
+    private static final String LINE_SEPARATOR    = System.lineSeparator();
+    private static final byte   REPLACEMENT       = '?';
+    private static final char   NO_HIGH_SURROGATE = 0;
+
+    private final OutputStream out;
+    private final byte[]       buffer;
+    private final boolean      asciiUpperCase;
+
+    private int  position;
+    private char highSurrogate;
+    private long flushedBytes;
+    private long rowsWritten;
+
+    /**
+     * Writes one element of a list or one line in place, directly to the
+     * report output.
+     *
+     * @param <T> The type of the elements.
+     */
+    @FunctionalInterface
+    public interface ElementWriter<T>
+    {
+        /**
+         * Writes one element.
+         *
+         * @param writer  The report output.
+         * @param element The element to write.
+         * @throws IOException If writing fails.
+         */
+        void write(ReportWriter writer,
+                   T element) throws IOException;
+    }
+
+    /**
+     * Opens the output file for writing, creating it if needed and
+     * discarding any previous content.
+     *
+     * @param dataPath The path of the output file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public ReportWriter(final Path dataPath) throws IOException
+    {
+        this(Files.newOutputStream(dataPath,
+                                   StandardOpenOption.CREATE,
+                                   StandardOpenOption.TRUNCATE_EXISTING,
+                                   StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Wraps an already opened output stream. The stream is closed
+     * together with this writer.
+     *
+     * @param out The stream to write the report to.
+     */
+    public ReportWriter(final OutputStream out)
+    {
+        final String language;
+
+        this.out = out;
+
+        language       = Locale.getDefault().getLanguage();
+        buffer         = new byte[BUFFER_SIZE];
+        asciiUpperCase = !language.equals("tr") && !language.equals("az");
+        position       = 0;
+        highSurrogate  = NO_HIGH_SURROGATE;
+        flushedBytes   = 0;
+        rowsWritten    = 0;
+    }
+
+    /**
+     * Writes text exactly as given, without a trailing line separator.
+     *
+     * @param text The text to write.
+     * @throws IOException If writing fails.
+     */
+    public void write(final String text) throws IOException
+    {
+        for(int i = 0; i < text.length(); i++)
+        {
+            writeChar(text.charAt(i));
+        }
+    }
+
+    /**
+     * Writes text in upper case, as {@link String#toUpperCase()} would.
+     * ASCII text is converted while it is written; other text is converted
+     * by the JDK first.
+     *
+     * @param text The text to write.
+     * @throws IOException If writing fails.
+     */
+    public void writeUpperCase(final String text) throws IOException
+    {
+        if(!asciiUpperCase || !isAscii(text))
+        {
+            write(text.toUpperCase());
+            return;
+        }
+
+        for(int i = 0; i < text.length(); i++)
+        {
+            final char character;
+
+            character = text.charAt(i);
+            if(character >= 'a' && character <= 'z')
+            {
+                writeChar((char) (character - ('a' - 'A')));
+            }
+            else
+            {
+                writeChar(character);
+            }
+        }
+    }
+
+    /**
+     * Writes a number in decimal, as {@link String#valueOf(int)} would.
+     *
+     * @param number The number to write.
+     * @throws IOException If writing fails.
+     */
+    public void writeInt(final int number) throws IOException
+    {
+        long remaining;
+        int  start;
+
+        flushHighSurrogate();
+        ensureCapacity(MAX_INT_DIGITS);
+        remaining = number;
+        if(remaining < 0)
+        {
+            buffer[position] = '-';
+            position++;
+            remaining = -remaining;
+        }
+
+        start = position;
+        do
+        {
+            buffer[position] = (byte) ('0' + remaining % 10);
+            position++;
+            remaining /= 10;
+        }
+        while(remaining > 0);
+
+        for(int low = start, high = position - 1; low < high; low++, high--)
+        {
+            final byte digit;
+
+            digit        = buffer[low];
+            buffer[low]  = buffer[high];
+            buffer[high] = digit;
+        }
+    }
+
+    /**
+     * Writes a single Unicode code point.
+     *
+     * @param codePoint The code point to write.
+     * @throws IOException If writing fails.
+     */
+    public void writeCodePoint(final int codePoint) throws IOException
+    {
+        if(Character.isBmpCodePoint(codePoint))
+        {
+            writeChar((char) codePoint);
+        }
+        else
+        {
+            writeChar(Character.highSurrogate(codePoint));
+            writeChar(Character.lowSurrogate(codePoint));
+        }
+    }
+
+    /**
+     * Ends the current line.
+     *
+     * @throws IOException If writing fails.
+     */
+    public void newLine() throws IOException
+    {
+        write(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes each element on its own line, the same way
+     * {@link Files#write(Path, Iterable, OpenOption...)} does.
+     *
+     * @param lines The lines to write.
+     * @param <T>   The type of the lines.
+     * @throws IOException If writing fails.
+     */
+    public <T extends CharSequence> void writeLines(final Iterable<T> lines) throws IOException
+    {
+        writeLines(lines, ReportWriter::writeCharSequence);
+    }
+
+    /**
+     * Writes each element on its own line, letting the element writer
+     * produce the text of each line in place.
+     *
+     * @param elements      The elements to write.
+     * @param elementWriter Writes one line, without its line separator.
+     * @param <T>           The type of the elements.
+     * @throws IOException If writing fails.
+     */
+    public <T> void writeLines(final Iterable<T> elements,
+                               final ElementWriter<? super T> elementWriter) throws IOException
+    {
+        for(final T element : elements)
+        {
+            elementWriter.write(this, element);
+            newLine();
+            rowsWritten++;
+        }
+    }
+
+    /**
+     * Writes the elements in the same format as {@link java.util.AbstractCollection#toString()},
+     * without building the joined string first.
+     *
+     * @param elements The elements to write.
+     * @param <T>      The type of the elements.
+     * @throws IOException If writing fails.
+     */
+    public <T> void writeList(final Iterable<T> elements) throws IOException
+    {
+        writeList(elements, (writer, element)->writer.write(String.valueOf(element)));
+    }
+
+    /**
+     * Writes the elements in the same format as {@link java.util.AbstractCollection#toString()},
+     * letting the element writer produce the text of each element in place.
+     *
+     * @param elements      The elements to write.
+     * @param elementWriter Writes one element.
+     * @param <T>           The type of the elements.
+     * @throws IOException If writing fails.
+     */
+    public <T> void writeList(final Iterable<T> elements,
+                              final ElementWriter<? super T> elementWriter) throws IOException
+    {
+        final Iterator<T> iterator;
+
+        iterator = elements.iterator();
+
+        writeChar('[');
+        while(iterator.hasNext())
+        {
+            elementWriter.write(this, iterator.next());
+            rowsWritten++;
+            if(iterator.hasNext())
+            {
+                write(", ");
+            }
+        }
+        writeChar(']');
+    }
+
+    /**
+     * @return The number of bytes written so far, including bytes still
+     *         in the buffer.
+     */
+    public long getBytesWritten()
+    {
+        return flushedBytes + position;
+    }
+
+    /**
+     * @return The number of lines and list elements written so far by
+     *         {@link #writeLines(Iterable)} and {@link #writeList(Iterable)}
+     *         and their overloads.
+     */
+    public long getRowsWritten()
+    {
+        return rowsWritten;
+    }
+
+    /**
+     * Flushes the buffer and closes the output file.
+     *
+     * @throws IOException If flushing or closing fails.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try(out)
+        {
+            flushHighSurrogate();
+            flushBuffer();
+        }
+    }
+
+    /*
+     * Writes the replacement for a high surrogate still waiting for its
+     * low half, before something other than a char is written.
+     */
+    private void flushHighSurrogate() throws IOException
+    {
+        if(highSurrogate != NO_HIGH_SURROGATE)
+        {
+            highSurrogate = NO_HIGH_SURROGATE;
+            writeByte(REPLACEMENT);
+        }
+    }
+
+    /*
+     * Writes any character sequence one char at a time.
+     */
+    private void writeCharSequence(final CharSequence text) throws IOException
+    {
+        if(text instanceof String string)
+        {
+            write(string);
+            return;
+        }
+
+        for(int i = 0; i < text.length(); i++)
+        {
+            writeChar(text.charAt(i));
+        }
+    }
+
+    /*
+     * Encodes one UTF-16 char, pairing surrogates across calls.
+     */
+    private void writeChar(final char character) throws IOException
+    {
+        if(highSurrogate != NO_HIGH_SURROGATE && Character.isLowSurrogate(character))
+        {
+            final char high;
+
+            high          = highSurrogate;
+            highSurrogate = NO_HIGH_SURROGATE;
+            writeSupplementary(Character.toCodePoint(high, character));
+            return;
+        }
+        flushHighSurrogate();
+
+        if(character < 0x80)
+        {
+            writeByte((byte) character);
+        }
+        else if(character < 0x800)
+        {
+            ensureCapacity(2);
+            buffer[position]     = (byte) (0xC0 | character >> 6);
+            buffer[position + 1] = (byte) (0x80 | character & 0x3F);
+            position += 2;
+        }
+        else if(Character.isHighSurrogate(character))
+        {
+            highSurrogate = character;
+        }
+        else if(Character.isLowSurrogate(character))
+        {
+            writeByte(REPLACEMENT);
+        }
+        else
+        {
+            ensureCapacity(3);
+            buffer[position]     = (byte) (0xE0 | character >> 12);
+            buffer[position + 1] = (byte) (0x80 | character >> 6 & 0x3F);
+            buffer[position + 2] = (byte) (0x80 | character & 0x3F);
+            position += 3;
+        }
+    }
+
+    /*
+     * Encodes a code point outside the Basic Multilingual Plane.
+     */
+    private void writeSupplementary(final int codePoint) throws IOException
+    {
+        ensureCapacity(4);
+        buffer[position]     = (byte) (0xF0 | codePoint >> 18);
+        buffer[position + 1] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+        buffer[position + 2] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        buffer[position + 3] = (byte) (0x80 | codePoint & 0x3F);
+        position += 4;
+    }
+
+    /*
+     * Appends one byte to the buffer.
+     */
+    private void writeByte(final byte value) throws IOException
+    {
+        if(position == buffer.length)
+        {
+            flushBuffer();
+        }
+
+        buffer[position] = value;
+        position++;
+    }
+
+    /*
+     * Makes room for the given number of bytes.
+     */
+    private void ensureCapacity(final int bytes) throws IOException
+    {
+        if(buffer.length - position < bytes)
+        {
+            flushBuffer();
+        }
+    }
+
+    /*
+     * Writes the buffered bytes to the output stream.
+     */
+    private void flushBuffer() throws IOException
+    {
+        out.write(buffer, 0, position);
+        flushedBytes += position;
+        position      = 0;
+    }
+
+    /*
+     * Returns true if every char of the text is ASCII.
+     */
+    private static boolean isAscii(final String text)
+    {
+        for(int i = 0; i < text.length(); i++)
+        {
+            if(text.charAt(i) >= 0x80)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,450 @@
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+
+/**
+ * The built-in sections of the country report, in the order they are
+ * written, and the lookup used to select a subset of them by name.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public final class Reports
+{
+    static final int LONG_COUNTRY_NAME_MIN_LENGTH      = 10;
+    static final int SHORT_COUNTRY_NAME_MAX_LENGTH     = 5;
+    static final int COUNTRY_ENDS_WITH_LAND_MIN_LENGTH = 4;
+    static final int COUNTRY_NAMES_MIN_LENGTH_3        = 3;
+    static final int TOP_COUNT                         = 100;
+    static final int MIN_WORD_COUNT                    = 3;
+
+    private Reports()
+    {
+    }
+
+    /**
+     * Creates every built-in section with the default length thresholds,
+     * in output order.
+     *
+     * @param sortMemoryBudget The estimated bytes of names kept in memory
+     *                         by the shared sorter before spilling.
+     * @return The built-in sections.
+     */
+    public static List<Report<?>> builtIn(final long sortMemoryBudget)
+    {
+        return builtIn(ReportSettings.withDefaults(sortMemoryBudget));
+    }
+
+    /**
+     * Creates every built-in section, in output order. The sorted,
+     * uppercase and character-count sections share one
+     * {@link ExternalSorter}, the prefix, suffix and substring sections
+     * share one {@link CountryIndex}, and the length sections share one
+     * {@link LengthIndex}. Every sorter created by the sections, one per
+     * chunk of a parallel run and one per file of a batch, shares one
+     * memory budget.
+     *
+     * @param settings The sorter budget, length thresholds and match mode.
+     * @return The built-in sections.
+     */
+    public static List<Report<?>> builtIn(final ReportSettings settings)
+    {
+        final ExternalSorter.MemoryBudget          sortBudget;
+        final Collector<String, ?, ExternalSorter> allNames;
+        final Collector<String, ?, CountryIndex>   indexedNames;
+        final Collector<String, ?, LengthIndex>    lengthIndex;
+        final MatchMode                            prefixMode;
+        final MatchMode                            suffixMode;
+        final MatchMode                            containsMode;
+
+        prefixMode   = modeOr(settings, MatchMode.EXACT);
+        suffixMode   = modeOr(settings, MatchMode.CASE_INSENSITIVE);
+        containsMode = modeOr(settings, MatchMode.EXACT);
+
+        sortBudget = new ExternalSorter.MemoryBudget(settings.sortMemoryBudget());
+        allNames   = Collector.of(()->new ExternalSorter(sortBudget),
+                                  ExternalSorter::add,
+                                  (first, second)->
+                                  {
+                                      first.combine(second);
+                                      return first;
+                                  });
+        indexedNames = Collector.of(CountryIndex::new,
+                                    CountryIndex::add,
+                                    CountryIndex::combine);
+        lengthIndex  = Collector.of(LengthIndex::new,
+                                    LengthIndex::add,
+                                    LengthIndex::combine);
+
+        return List.of(
+                Report.of("long-names",
+                          "Country names longer than " + settings.longNameMinLength() + " characters:\n",
+                          lengthIndex,
+                          (lengths, writer)->writer.writeLines(
+                                  lengths.withLengthBetween(longerThan(settings.longNameMinLength()), Integer.MAX_VALUE))),
+                Report.of("short-names",
+                          "\n-----Country names shorter than " + settings.shortNameMaxLength() + " characters-----\n",
+                          lengthIndex,
+                          (lengths, writer)->writer.writeLines(
+                                  lengths.withLengthBetween(0, settings.shortNameMaxLength() - 1))),
+                Report.of("starts-with-a",
+                          "\nCountry names starting with 'A':\n",
+                          indexedNames,
+                          (index, writer)->writer.writeLines(index.startingWith("A", prefixMode))),
+                Report.of("ends-with-land",
+                          "\n-----Country that end with \"land\"-----\n",
+                          indexedNames,
+                          (index, writer)->writer.writeLines(
+                                  index.endingWith("land", suffixMode)
+                                          .stream()
+                                          .filter(country->codePointLength(country) > COUNTRY_ENDS_WITH_LAND_MIN_LENGTH)
+                                          .toList())),
+                Report.of("contains-united",
+                          "\n-----Countries that contain \"United\"-----\n",
+                          indexedNames,
+                          (index, writer)->writer.writeLines(index.containing("United", containsMode))),
+                Report.of("ascending",
+                          "\n------Countries in ascending order-----\n",
+                          allNames,
+                          (sorter, writer)->
+                          {
+                              try(final Stream<String> ascendingOrder = sorter.ascending())
+                              {
+                                  writer.writeLines(ascendingOrder::iterator);
+                              }
+                          }),
+                Report.of("descending",
+                          "\n------Countries in descending order-----\n",
+                          allNames,
+                          (sorter, writer)->
+                          {
+                              try(final Stream<String> descendingOrder = sorter.descending())
+                              {
+                                  writer.writeLines(descendingOrder::iterator);
+                              }
+                          }),
+                Report.of("first-letters",
+                          "\n------Unique first letters of countries-----\n",
+                          Collector.of(FirstLetters::new,
+                                       FirstLetters::add,
+                                       FirstLetters::combine,
+                                       FirstLetters::toList),
+                          (uniqueFirstLetters, writer)->writer.writeLines(uniqueFirstLetters)),
+                Report.of("count",
+                          "\n------Count of countries-----\n",
+                          Collectors.counting(),
+                          (countOfCountries, writer)->writer.write(String.valueOf(countOfCountries))),
+                Report.of("longest",
+                          "\n------Longest country names-----\n",
+                          lengthIndex,
+                          (lengths, writer)->writer.writeList(lengths.longest())),
+                Report.of("shortest",
+                          "\n------Shortest country names-----\n",
+                          lengthIndex,
+                          (lengths, writer)->writer.writeList(lengths.shortest())),
+                Report.of("uppercase",
+                          "\n------Countries in uppercase-----\n",
+                          allNames,
+                          (sorter, writer)->
+                          {
+                              try(final Stream<String> countries = sorter.inputOrder())
+                              {
+                                  writer.writeList(countries::iterator, ReportWriter::writeUpperCase);
+                              }
+                          }),
+                Report.of("character-counts",
+                          "\n------Countries with their character counts-----\n",
+                          allNames,
+                          (sorter, writer)->
+                          {
+                              try(final Stream<String> countries = sorter.inputOrder())
+                              {
+                                  writer.writeLines(countries::iterator, Reports::writeCharacterCount);
+                              }
+                          }),
+                Report.of("multi-word",
+                          "\n------Countries with more than one word------\n",
+                          WordStats.collector(),
+                          (words, writer)->writer.writeLines(words.withAtLeast(2))),
+                Report.of("starts-with-z",
+                          "\n------Country starts with Z-----\n",
+                          indexedNames,
+                          (index, writer)->writer.write(String.valueOf(index.anyStartingWith("Z", prefixMode)))),
+                Report.of("all-longer-than-3",
+                          "\n-----All countries longer than " + settings.minNameLength() + "------\n",
+                          lengthIndex,
+                          (lengths, writer)->writer.write(String.valueOf(lengths.allLongerThan(settings.minNameLength())))));
+    }
+
+    /**
+     * Selects sections by name, keeping the built-in output order.
+     *
+     * @param names            The names to keep; all sections when empty.
+     * @param sortMemoryBudget The memory budget of the shared sorter.
+     * @return The selected sections.
+     * @throws IllegalArgumentException If a name is not a built-in section.
+     */
+    public static List<Report<?>> select(final Collection<String> names,
+                                         final long sortMemoryBudget)
+    {
+        return select(names, ReportSettings.withDefaults(sortMemoryBudget));
+    }
+
+    /**
+     * Selects sections by name, keeping the built-in output order. The
+     * top-k, duplicates and word sections are only written when selected,
+     * after the built-in sections.
+     *
+     * @param names    The names to keep; all built-in sections when empty.
+     * @param settings The sorter budget and length thresholds.
+     * @return The selected sections.
+     * @throws IllegalArgumentException If a name is not a built-in section.
+     */
+    public static List<Report<?>> select(final Collection<String> names,
+                                         final ReportSettings settings)
+    {
+        final List<Report<?>> reports;
+        final Set<String>     known;
+
+        if(names.isEmpty())
+        {
+            return builtIn(settings);
+        }
+
+        reports = new ArrayList<>(builtIn(settings));
+        reports.addAll(optionalSections(settings));
+
+        known = new HashSet<>();
+        for(final Report<?> report : reports)
+        {
+            known.add(report.getName());
+        }
+
+        for(final String name : names)
+        {
+            if(!known.contains(name))
+            {
+                throw new IllegalArgumentException("Unknown section: " + name +
+                                                   ", expected one of " + known);
+            }
+        }
+
+        return reports.stream()
+                .filter(report->names.contains(report.getName()))
+                .toList();
+    }
+
+    /*
+     * Creates the sections written only when selected: the first names of
+     * each ranking, each kept in a bounded heap instead of sorting every
+     * name, the names that occur more than once, and the word statistics.
+     */
+    private static List<Report<?>> optionalSections(final ReportSettings settings)
+    {
+        final int count;
+        final int minWords;
+
+        count    = settings.topCount();
+        minWords = settings.minWordCount();
+
+        return List.of(
+                top("top-longest",
+                    "\n------" + count + " longest country names-----\n",
+                    TopNames.Ranking.LONGEST,
+                    count),
+                top("top-shortest",
+                    "\n------" + count + " shortest country names-----\n",
+                    TopNames.Ranking.SHORTEST,
+                    count),
+                top("top-ascending",
+                    "\n------First " + count + " countries in ascending order-----\n",
+                    TopNames.Ranking.ASCENDING,
+                    count),
+                top("top-descending",
+                    "\n------First " + count + " countries in descending order-----\n",
+                    TopNames.Ranking.DESCENDING,
+                    count),
+                Report.of("duplicates",
+                          "\n------Duplicate country names-----\n",
+                          NamePool.collector(),
+                          (pool, writer)->writer.writeLines(IntStream.of(pool.duplicates())::iterator,
+                                                            (output, id)->writeDuplicate(output, pool, id))),
+                Report.of("word-counts",
+                          "\n------Countries by number of words-----\n",
+                          WordStats.collector(),
+                          (words, writer)->writeHistogram(writer, words.histogram())),
+                Report.of("top-words",
+                          "\n------" + count + " most frequent words-----\n",
+                          WordStats.collector(),
+                          (words, writer)->writer.writeLines(words.mostFrequent(count),
+                                                             (output, word)->writeOccurrences(output, words, word))),
+                Report.of("min-words",
+                          "\n------Countries with at least " + minWords + " words-----\n",
+                          WordStats.collector(),
+                          (words, writer)->writer.writeLines(words.withAtLeast(minWords))));
+    }
+
+    /*
+     * Creates a section listing the first names of a ranking one per line.
+     */
+    private static Report<TopNames> top(final String name,
+                                        final String header,
+                                        final TopNames.Ranking ranking,
+                                        final int count)
+    {
+        return Report.of(name,
+                         header,
+                         Collector.of(()->new TopNames(ranking, count),
+                                      TopNames::add,
+                                      TopNames::combine),
+                         (top, writer)->writer.writeLines(top.toList()));
+    }
+
+    /*
+     * Writes a name followed by its length, without building the line.
+     */
+    private static void writeCharacterCount(final ReportWriter writer,
+                                            final String country) throws IOException
+    {
+        writer.write(country);
+        writer.write(": ");
+        writer.writeInt(codePointLength(country));
+    }
+
+    /*
+     * Writes a duplicated name followed by its number of occurrences.
+     */
+    private static void writeDuplicate(final ReportWriter writer,
+                                       final NamePool pool,
+                                       final int id) throws IOException
+    {
+        writer.write(pool.name(id));
+        writer.write(": ");
+        writer.writeInt(pool.count(id));
+    }
+
+    /*
+     * Writes how many names have each number of words, skipping numbers no
+     * name has.
+     */
+    private static void writeHistogram(final ReportWriter writer,
+                                       final int[] histogram) throws IOException
+    {
+        writer.writeLines(IntStream.range(0, histogram.length)
+                                  .filter(words->histogram[words] > 0)::iterator,
+                          (output, words)->
+                          {
+                              output.writeInt(words);
+                              output.write(words == 1 ? " word: " : " words: ");
+                              output.writeInt(histogram[words]);
+                          });
+    }
+
+    /*
+     * Writes a word followed by its number of occurrences.
+     */
+    private static void writeOccurrences(final ReportWriter writer,
+                                         final WordStats words,
+                                         final String word) throws IOException
+    {
+        writer.write(word);
+        writer.write(": ");
+        writer.writeInt(words.occurrences(word));
+    }
+
+    /*
+     * Returns the number of characters in a name, counting a surrogate
+     * pair as one.
+     */
+    static int codePointLength(final String country)
+    {
+        return country.codePointCount(0, country.length());
+    }
+
+    /*
+     * Returns the shortest length longer than the given one, saturating at
+     * Integer.MAX_VALUE, which no name can reach.
+     */
+    private static int longerThan(final int length)
+    {
+        return length == Integer.MAX_VALUE ? length : length + 1;
+    }
+
+    /*
+     * Returns the configured match mode, or the section's own mode when
+     * none is configured.
+     */
+    private static MatchMode modeOr(final ReportSettings settings,
+                                    final MatchMode sectionMode)
+    {
+        return settings.matchMode() == null ? sectionMode : settings.matchMode();
+    }
+
+    /*
+     * The distinct first code points of the names, in order of first
+     * appearance. Membership is a bitset over code points, so a repeated
+     * letter costs one bit test and no allocation.
+     */
+    private static final class FirstLetters
+    {
+        private final BitSet seen;
+        private int[]        letters;
+        private int          size;
+
+        FirstLetters()
+        {
+            seen    = new BitSet();
+            letters = new int[Byte.SIZE];
+            size    = 0;
+        }
+
+        void add(final String country)
+        {
+            addLetter(country.codePointAt(0));
+        }
+
+        FirstLetters combine(final FirstLetters other)
+        {
+            for(int i = 0; i < other.size; i++)
+            {
+                addLetter(other.letters[i]);
+            }
+
+            return this;
+        }
+
+        List<String> toList()
+        {
+            final List<String> firstLetters;
+
+            firstLetters = new ArrayList<>(size);
+            for(int i = 0; i < size; i++)
+            {
+                firstLetters.add(Character.toString(letters[i]));
+            }
+
+            return firstLetters;
+        }
+
+        private void addLetter(final int letter)
+        {
+            if(seen.get(letter))
+            {
+                return;
+            }
+
+            seen.set(letter);
+            if(size == letters.length)
+            {
+                letters = Arrays.copyOf(letters, size * 2);
+            }
+            letters[size] = letter;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * What one phase of a report run cost, written by {@link ReportMetrics} as
+ * one JSON line.
+ *
+ * @param input          The country file the report was built from.
+ * @param phase          {@code collect} for the shared pass over the names,
+ *                       or {@code write} for one section's output.
+ * @param section        The section written, or null for the shared pass.
+ * @param wallNanos      The elapsed wall-clock time, in nanoseconds.
+ * @param rowsScanned    The number of names fed to the sections.
+ * @param rowsEmitted    The number of lines and list elements written.
+ * @param bytesWritten   The number of bytes written, header included.
+ * @param allocatedBytes The bytes allocated on the heap, or -1 if the JVM
+ *                       cannot measure them.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public record SectionMetrics(String input,
+                             String phase,
+                             String section,
+                             long wallNanos,
+                             long rowsScanned,
+                             long rowsEmitted,
+                             long bytesWritten,
+                             long allocatedBytes)
+{
+    /**
+     * @return These metrics as a single-line JSON object.
+     */
+    public String toJson()
+    {
+        return "{\"input\":" + quote(input) +
+               ",\"phase\":" + quote(phase) +
+               ",\"section\":" + quote(section) +
+               ",\"wall_ns\":" + wallNanos +
+               ",\"rows_scanned\":" + rowsScanned +
+               ",\"rows_emitted\":" + rowsEmitted +
+               ",\"bytes_written\":" + bytesWritten +
+               ",\"allocated_bytes\":" + (allocatedBytes < 0 ? "null" : String.valueOf(allocatedBytes)) +
+               "}";
+    }
+
+    /*
+     * Returns a JSON string literal, or null.
+     */
+    private static String quote(final String text)
+    {
+        final StringBuilder json;
+
+        if(text == null)
+        {
+            return "null";
+        }
+
+        json = new StringBuilder(text.length() + 2);
+        json.append('"');
+        for(int i = 0; i < text.length(); i++)
+        {
+            final char character;
+
+            character = text.charAt(i);
+            if(character == '"' || character == '\\')
+            {
+                json.append('\\').append(character);
+            }
+            else if(character < ' ')
+            {
+                json.append(String.format("\\u%04x", (int) character));
+            }
+            else
+            {
+                json.append(character);
+            }
+        }
+        json.append('"');
+
+        return json.toString();
+    }
+}
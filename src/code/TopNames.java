@@ -0,0 +1,210 @@
+import java.util.*;
+
+
+/**
+ * Keeps the first names of a ranking, such as the longest names or the
+ * first names in ascending order, without holding or sorting every name.
+ * <p>
+ * The kept names sit in a bounded heap whose root is the worst of them, so
+ * each added name is compared with the root and either dropped or swapped
+ * in at a cost of O(log k). Collecting n names takes O(n log k) time and
+ * O(k) memory, and only the k kept names are sorted at the end. Names that
+ * rank equally keep their input order, as a stable sort would.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class TopNames
+{
+    private final Ranking             ranking;
+    private final int                 limit;
+    private final PriorityQueue<Kept> heap;
+
+    private long added;
+
+    /**
+     * The orders names can be ranked in.
+     */
+    public enum Ranking
+    {
+        /**
+         * Longest names first, by code points.
+         */
+        LONGEST,
+
+        /**
+         * Shortest names first, by code points.
+         */
+        SHORTEST,
+
+        /**
+         * Names in ascending order.
+         */
+        ASCENDING,
+
+        /**
+         * Names in descending order.
+         */
+        DESCENDING;
+
+        /*
+         * Compares two kept names, negative when the first ranks higher.
+         */
+        private int compare(final Kept first,
+                            final Kept second)
+        {
+            final int order;
+
+            order = switch(this)
+            {
+                case LONGEST    -> Integer.compare(second.length(), first.length());
+                case SHORTEST   -> Integer.compare(first.length(), second.length());
+                case ASCENDING  -> first.name().compareTo(second.name());
+                case DESCENDING -> second.name().compareTo(first.name());
+            };
+
+            if(order != 0)
+            {
+                return order;
+            }
+
+            return Long.compare(first.position(), second.position());
+        }
+    }
+
+    /*
+     * A kept name with its length in code points and its input position.
+     */
+    private record Kept(String name,
+                        int length,
+                        long position)
+    {
+    }
+
+    /*
+     * Puts the worst kept name at the root of the heap.
+     */
+    private record WorstFirst(Ranking ranking) implements Comparator<Kept>
+    {
+        @Override
+        public int compare(final Kept first,
+                           final Kept second)
+        {
+            return ranking.compare(second, first);
+        }
+    }
+
+    /**
+     * Creates an empty ranking.
+     *
+     * @param ranking The order names are ranked in.
+     * @param limit   The number of names to keep.
+     */
+    public TopNames(final Ranking ranking,
+                    final int limit)
+    {
+        if(limit < 0)
+        {
+            throw new IllegalArgumentException("Limit must not be negative: " + limit);
+        }
+
+        this.ranking = ranking;
+        this.limit   = limit;
+
+        heap  = new PriorityQueue<>(Math.min(limit, 1 << 10) + 1, new WorstFirst(ranking));
+        added = 0;
+    }
+
+    /**
+     * Offers a name after every name added so far.
+     *
+     * @param name The name to offer.
+     */
+    public void add(final String name)
+    {
+        offer(new Kept(name, name.codePointCount(0, name.length()), added));
+        added++;
+    }
+
+    /**
+     * Merges the names kept for the names that follow this ranking's names
+     * in the input.
+     *
+     * @param other The ranking for the following chunk of the input, with
+     *              the same order and limit.
+     * @return This ranking.
+     */
+    public TopNames combine(final TopNames other)
+    {
+        if(other.ranking != ranking || other.limit != limit)
+        {
+            throw new IllegalArgumentException("Cannot combine the top " + other.limit + " " + other.ranking +
+                                               " names with the top " + limit + " " + ranking + " names");
+        }
+
+        for(final Kept kept : other.heap)
+        {
+            offer(new Kept(kept.name(), kept.length(), added + kept.position()));
+        }
+        added += other.added;
+
+        return this;
+    }
+
+    /**
+     * @return The kept names, best ranked first.
+     */
+    public List<String> toList()
+    {
+        final List<Kept>   kept;
+        final List<String> names;
+
+        kept = new ArrayList<>(heap);
+        kept.sort(ranking::compare);
+
+        names = new ArrayList<>(kept.size());
+        for(final Kept name : kept)
+        {
+            names.add(name.name());
+        }
+
+        return names;
+    }
+
+    /**
+     * Finds the name at a rank, such as the third longest name.
+     *
+     * @param rank The rank, starting at 1.
+     * @return The name, or null if fewer names were kept.
+     */
+    public String nth(final int rank)
+    {
+        final List<String> names;
+
+        if(rank < 1)
+        {
+            throw new IllegalArgumentException("Rank must be positive: " + rank);
+        }
+
+        names = toList();
+
+        return rank <= names.size() ? names.get(rank - 1) : null;
+    }
+
+    /*
+     * Keeps a name if there is room or it ranks above the worst kept name.
+     */
+    private void offer(final Kept kept)
+    {
+        if(heap.size() < limit)
+        {
+            heap.add(kept);
+        }
+        else if(limit > 0 && ranking.compare(kept, heap.peek()) < 0)
+        {
+            heap.poll();
+            heap.add(kept);
+        }
+    }
+}
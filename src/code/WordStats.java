@@ -0,0 +1,362 @@
+import java.util.*;
+import java.util.stream.Collector;
+
+
+/**
+ * Word statistics gathered in the same pass as every other section: the
+ * number of words in each name, how many names have each number of words,
+ * and how often each distinct word occurs.
+ * <p>
+ * Names are split with {@link WordTokenizer}, which only yields offsets.
+ * Words are counted in an open-addressing table that compares the offsets
+ * against the words already seen, so a substring is only created the first
+ * time a distinct word appears, never once per occurrence. The offsets
+ * themselves are not kept: every statistic is derived from them while the
+ * name is added, so storing each name's word boundaries would only cost
+ * memory on long lists. The names are kept as ids of a {@link NamePool}.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public class WordStats implements PooledNames<WordStats>
+{
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int HASH_MULTIPLIER  = 31;
+    private static final int EMPTY_SLOT       = -1;
+
+    private static final Collector<String, WordStats, WordStats> COLLECTOR =
+            Collector.of(WordStats::new,
+                         WordStats::add,
+                         WordStats::combine);
+
+    private NamePool pool;
+    private int[]    nameIds;
+    private int      size;
+    private int[]    wordCounts;
+    private int[]    histogram;
+    private String[] words;
+    private int[]    occurrences;
+    private int[]    slots;
+    private int      distinctWords;
+
+    /**
+     * Creates empty statistics.
+     */
+    public WordStats()
+    {
+        pool          = new NamePool();
+        nameIds       = new int[INITIAL_CAPACITY];
+        size          = 0;
+        wordCounts    = new int[INITIAL_CAPACITY];
+        histogram     = new int[INITIAL_CAPACITY];
+        words         = new String[INITIAL_CAPACITY];
+        occurrences   = new int[INITIAL_CAPACITY];
+        slots         = emptySlots(INITIAL_CAPACITY * 2);
+        distinctWords = 0;
+    }
+
+    /**
+     * Returns the collector shared by every word section, so the names are
+     * tokenized once however many of them are selected.
+     *
+     * @return The shared word statistics collector.
+     */
+    public static Collector<String, WordStats, WordStats> collector()
+    {
+        return COLLECTOR;
+    }
+
+    /**
+     * Tokenizes a name after every name added so far.
+     *
+     * @param name The name to add.
+     */
+    public void add(final String name)
+    {
+        addId(pool.add(name));
+    }
+
+    /**
+     * Appends the statistics of the names that follow this object's names
+     * in the input.
+     *
+     * @param other The statistics for the following chunk of the input.
+     * @return This object.
+     */
+    public WordStats combine(final WordStats other)
+    {
+        append(other, other.pool == pool ? null : pool.combine(other.pool));
+
+        return this;
+    }
+
+    @Override
+    public void usePool(final NamePool pool)
+    {
+        if(size > 0)
+        {
+            throw new IllegalStateException("Names were already added.");
+        }
+
+        this.pool = pool;
+    }
+
+    @Override
+    public void addId(final int id)
+    {
+        final String name;
+        int          count;
+        int          end;
+
+        name  = pool.name(id);
+        count = 0;
+        for(int start = WordTokenizer.wordStart(name, 0); start < name.length(); start = WordTokenizer.wordStart(name, end))
+        {
+            final int wordId;
+
+            end    = WordTokenizer.wordEnd(name, start);
+            wordId = wordId(name, start, end);
+            occurrences[wordId]++;
+            count++;
+        }
+
+        appendName(id, count);
+    }
+
+    @Override
+    public void append(final WordStats other,
+                       final int[] poolIds)
+    {
+        for(int i = 0; i < other.size; i++)
+        {
+            appendName(poolIds == null ? other.nameIds[i] : poolIds[other.nameIds[i]], other.wordCounts[i]);
+        }
+
+        for(int id = 0; id < other.distinctWords; id++)
+        {
+            final String word;
+            final int    ownId;
+
+            word  = other.words[id];
+            ownId = wordId(word, 0, word.length());
+            occurrences[ownId] += other.occurrences[id];
+        }
+    }
+
+    /**
+     * Filters the names by their number of words. Words are separated by
+     * any whitespace, so a name whose words are separated only by a tab
+     * counts as having more than one word.
+     *
+     * @param minWords The fewest words a name may have.
+     * @return The names with at least that many words, in input order.
+     */
+    public List<String> withAtLeast(final int minWords)
+    {
+        final List<String> matches;
+
+        matches = new ArrayList<>();
+        for(int i = 0; i < size; i++)
+        {
+            if(wordCounts[i] >= minWords)
+            {
+                matches.add(pool.name(nameIds[i]));
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * @return The number of names having each number of words, indexed by
+     *         the number of words, up to the most words of any name.
+     */
+    public int[] histogram()
+    {
+        int length;
+
+        length = histogram.length;
+        while(length > 0 && histogram[length - 1] == 0)
+        {
+            length--;
+        }
+
+        return Arrays.copyOf(histogram, length);
+    }
+
+    /**
+     * Ranks the distinct words by how often they occur. Words occurring
+     * equally often keep the order they first appeared in.
+     *
+     * @param limit The most words to return.
+     * @return The most frequent words, most frequent first.
+     */
+    public List<String> mostFrequent(final int limit)
+    {
+        final List<Integer> ids;
+        final List<String>  ranked;
+
+        ids = new ArrayList<>(distinctWords);
+        for(int id = 0; id < distinctWords; id++)
+        {
+            ids.add(id);
+        }
+        ids.sort((first, second)->Integer.compare(occurrences[second], occurrences[first]));
+
+        ranked = new ArrayList<>(Math.min(limit, ids.size()));
+        for(int i = 0; i < limit && i < ids.size(); i++)
+        {
+            ranked.add(words[ids.get(i)]);
+        }
+
+        return ranked;
+    }
+
+    /**
+     * @param word A word.
+     * @return The number of times the word occurs in the names.
+     */
+    public int occurrences(final String word)
+    {
+        final int slot;
+
+        slot = findSlot(word, 0, word.length(), hash(word, 0, word.length()));
+
+        return slots[slot] == EMPTY_SLOT ? 0 : occurrences[slots[slot]];
+    }
+
+    /*
+     * Records a name's pool id, its number of words and its histogram
+     * bucket.
+     */
+    private void appendName(final int id,
+                            final int count)
+    {
+        if(size == wordCounts.length)
+        {
+            nameIds    = Arrays.copyOf(nameIds, size * 2);
+            wordCounts = Arrays.copyOf(wordCounts, size * 2);
+        }
+        if(count >= histogram.length)
+        {
+            histogram = Arrays.copyOf(histogram, Math.max(count + 1, histogram.length * 2));
+        }
+
+        nameIds[size]    = id;
+        wordCounts[size] = count;
+        histogram[count]++;
+        size++;
+    }
+
+    /*
+     * Returns the id of the word text[start, end), adding it if it is new.
+     * Adding may replace the word arrays, so callers must read them only
+     * after this returns.
+     */
+    private int wordId(final String text,
+                       final int start,
+                       final int end)
+    {
+        final int hash;
+        final int slot;
+        final int id;
+
+        hash = hash(text, start, end);
+        slot = findSlot(text, start, end, hash);
+        if(slots[slot] != EMPTY_SLOT)
+        {
+            return slots[slot];
+        }
+
+        id = distinctWords;
+        if(id == words.length)
+        {
+            words       = Arrays.copyOf(words, id * 2);
+            occurrences = Arrays.copyOf(occurrences, id * 2);
+        }
+        words[id]   = text.substring(start, end);
+        slots[slot] = id;
+        distinctWords++;
+
+        if(distinctWords * 2 > slots.length)
+        {
+            rehash();
+        }
+
+        return id;
+    }
+
+    /*
+     * Finds the slot holding the word text[start, end), or the empty slot
+     * where it belongs.
+     */
+    private int findSlot(final String text,
+                         final int start,
+                         final int end,
+                         final int hash)
+    {
+        final int mask;
+        int       slot;
+
+        mask = slots.length - 1;
+        slot = hash & mask;
+        while(slots[slot] != EMPTY_SLOT)
+        {
+            final String word;
+
+            word = words[slots[slot]];
+            if(word.length() == end - start && text.regionMatches(start, word, 0, word.length()))
+            {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /*
+     * Doubles the table and puts every word back.
+     */
+    private void rehash()
+    {
+        slots = emptySlots(slots.length * 2);
+        for(int id = 0; id < distinctWords; id++)
+        {
+            slots[findSlot(words[id], 0, words[id].length(), hash(words[id], 0, words[id].length()))] = id;
+        }
+    }
+
+    /*
+     * Hashes text[start, end) the way String.hashCode would hash the
+     * substring, spreading the high bits into the low ones.
+     */
+    private static int hash(final String text,
+                            final int start,
+                            final int end)
+    {
+        int hash;
+
+        hash = 0;
+        for(int i = start; i < end; i++)
+        {
+            hash = HASH_MULTIPLIER * hash + text.charAt(i);
+        }
+
+        return hash ^ hash >>> 16;
+    }
+
+    /*
+     * Creates a table with every slot empty.
+     */
+    private static int[] emptySlots(final int size)
+    {
+        final int[] slots;
+
+        slots = new int[size];
+        Arrays.fill(slots, EMPTY_SLOT);
+
+        return slots;
+    }
+}
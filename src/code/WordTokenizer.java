@@ -0,0 +1,110 @@
+/**
+ * Finds the words of a country name as offsets into the name, without
+ * creating a substring per word. A word is a run of code points that are
+ * not whitespace, so leading, trailing and repeated separators never
+ * produce empty words. Whitespace is whatever
+ * {@link Character#isWhitespace(int)} accepts: a tab or an ideographic
+ * space separates words just as a plain space does, while a no-break space
+ * joins them.
+ * <p>
+ * Words are walked with {@link #wordStart(String, int)} and
+ * {@link #wordEnd(String, int)}:
+ * <pre>{@code
+ * int end;
+ *
+ * for(int start = wordStart(name, 0); start < name.length(); start = wordStart(name, end))
+ * {
+ *     end = wordEnd(name, start);
+ *     // the word is name[start, end)
+ * }
+ * }</pre>
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+public final class WordTokenizer
+{
+    private WordTokenizer()
+    {
+    }
+
+    /**
+     * Finds the start of the next word.
+     *
+     * @param text The text to search.
+     * @param from The offset to start searching from.
+     * @return The offset of the first code point of the next word, or the
+     *         text's length if there are no more words.
+     */
+    public static int wordStart(final String text,
+                                final int from)
+    {
+        int offset;
+
+        offset = from;
+        while(offset < text.length())
+        {
+            final int codePoint;
+
+            codePoint = text.codePointAt(offset);
+            if(!Character.isWhitespace(codePoint))
+            {
+                return offset;
+            }
+            offset += Character.charCount(codePoint);
+        }
+
+        return offset;
+    }
+
+    /**
+     * Finds the end of a word.
+     *
+     * @param text  The text holding the word.
+     * @param start The offset of the word's first code point.
+     * @return The offset just past the word's last code point.
+     */
+    public static int wordEnd(final String text,
+                              final int start)
+    {
+        int offset;
+
+        offset = start;
+        while(offset < text.length())
+        {
+            final int codePoint;
+
+            codePoint = text.codePointAt(offset);
+            if(Character.isWhitespace(codePoint))
+            {
+                return offset;
+            }
+            offset += Character.charCount(codePoint);
+        }
+
+        return offset;
+    }
+
+    /**
+     * Counts the words of a text.
+     *
+     * @param text The text to count.
+     * @return The number of words.
+     */
+    public static int count(final String text)
+    {
+        int words;
+        int start;
+
+        words = 0;
+        start = wordStart(text, 0);
+        while(start < text.length())
+        {
+            words++;
+            start = wordStart(text, wordEnd(text, start));
+        }
+
+        return words;
+    }
+}
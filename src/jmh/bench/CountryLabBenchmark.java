@@ -0,0 +1,434 @@
+package bench;
+
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * JMH benchmarks for CountryLab. Every report section, the shared filtering
+ * pass, the country index and the whole program are measured over synthetic
+ * country lists of one thousand, one million and fifty million names.
+ * <p>
+ * JMH cannot generate benchmarks in the default package, and classes in a
+ * named package cannot refer to the lab's classes by name, so the lab is
+ * reached through method handles held in static final fields.
+ * <p>
+ * Run {@link #main(String[])} to execute the suite with the GC profiler,
+ * which adds the allocation rate of every benchmark to the results. The
+ * fifty million name lists need a heap of roughly 24 GB.
+ *
+ * @author Valley B
+ * @author Nathan O
+ * @version 1.0 2025
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx24g")
+@State(Scope.Benchmark)
+public class CountryLabBenchmark
+{
+    private static final Path BASE_COUNTRIES_PATH = Paths.get("src", "res", "week8countries.txt");
+
+    @Param({"1000", "1000000", "50000000"})
+    private int size;
+
+    private List<String> countries;
+    private Object       allSections;
+    private Object       writer;
+    private Path         countriesPath;
+    private Path         dataPath;
+
+    /*
+     * Method handles into the lab's default-package classes.
+     */
+    private static final class Lab
+    {
+        private static final MethodHandle FILTERED_STREAM;
+        private static final MethodHandle BUILD_REPORT;
+        private static final MethodHandle GET_REPORTS;
+        private static final MethodHandle WRITE_SECTION;
+        private static final MethodHandle CLOSE_RESULTS;
+        private static final MethodHandle SELECT;
+        private static final MethodHandle NEW_ENGINE;
+        private static final MethodHandle NEW_WRITER;
+        private static final MethodHandle MAIN;
+        private static final MethodHandle NEW_INDEX;
+        private static final MethodHandle INDEX_ADD;
+        private static final MethodHandle STARTING_WITH;
+        private static final MethodHandle ENDING_WITH;
+        private static final MethodHandle CONTAINING;
+        private static final Object       CASE_INSENSITIVE;
+
+        static
+        {
+            try
+            {
+                final Class<?>             labClass;
+                final Class<?>             engineClass;
+                final Class<?>             resultsClass;
+                final Class<?>             writerClass;
+                final Class<?>             indexClass;
+                final Class<?>             modeClass;
+                final MethodHandles.Lookup lookup;
+
+                labClass     = Class.forName("CountryLab");
+                engineClass  = Class.forName("ReportEngine");
+                resultsClass = Class.forName("ReportResults");
+                writerClass  = Class.forName("ReportWriter");
+                indexClass   = Class.forName("CountryIndex");
+                modeClass    = Class.forName("MatchMode");
+                lookup       = MethodHandles.privateLookupIn(labClass, MethodHandles.lookup());
+
+                FILTERED_STREAM = lookup.findStatic(labClass, "filteredStream",
+                                                    MethodType.methodType(Stream.class, Stream.class));
+                BUILD_REPORT    = lookup.findStatic(labClass, "buildReport",
+                                                    MethodType.methodType(resultsClass, Stream.class,
+                                                                          engineClass, int.class));
+                GET_REPORTS     = lookup.findVirtual(resultsClass, "getReports",
+                                                     MethodType.methodType(List.class));
+                WRITE_SECTION   = lookup.findVirtual(resultsClass, "writeSection",
+                                                     MethodType.methodType(void.class, Class.forName("Report"),
+                                                                           writerClass, String.class,
+                                                                           Class.forName("ReportMetrics")));
+                CLOSE_RESULTS   = lookup.findVirtual(resultsClass, "close",
+                                                     MethodType.methodType(void.class));
+                SELECT          = lookup.findStatic(Class.forName("Reports"), "select",
+                                                    MethodType.methodType(List.class, Collection.class,
+                                                                          long.class));
+                NEW_ENGINE      = lookup.findConstructor(engineClass,
+                                                         MethodType.methodType(void.class, List.class));
+                NEW_WRITER      = lookup.findConstructor(writerClass,
+                                                         MethodType.methodType(void.class, OutputStream.class));
+                MAIN            = lookup.findStatic(labClass, "main",
+                                                    MethodType.methodType(void.class, String[].class));
+                NEW_INDEX       = lookup.findConstructor(indexClass,
+                                                         MethodType.methodType(void.class, int.class));
+                INDEX_ADD       = lookup.findVirtual(indexClass, "add",
+                                                     MethodType.methodType(void.class, String.class));
+                STARTING_WITH   = lookup.findVirtual(indexClass, "startingWith",
+                                                     MethodType.methodType(List.class, String.class, modeClass));
+                ENDING_WITH     = lookup.findVirtual(indexClass, "endingWith",
+                                                     MethodType.methodType(List.class, String.class, modeClass));
+                CONTAINING      = lookup.findVirtual(indexClass, "containing",
+                                                     MethodType.methodType(List.class, String.class, modeClass));
+                CASE_INSENSITIVE = modeClass.getField("CASE_INSENSITIVE").get(null);
+            }
+            catch(final ReflectiveOperationException e)
+            {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        /*
+         * Creates an engine running the named sections, or all when empty.
+         */
+        static Object engine(final List<String> sections) throws Throwable
+        {
+            return NEW_ENGINE.invoke(SELECT.invoke(sections, Long.MAX_VALUE));
+        }
+
+        /*
+         * Runs the engine over the names and writes the results.
+         */
+        static void run(final List<String> countries,
+                        final Object engine,
+                        final int threads,
+                        final Object writer) throws Throwable
+        {
+            final Object results;
+
+            results = BUILD_REPORT.invoke(countries.stream(), engine, threads);
+            try
+            {
+                for(final Object report : (List<?>) GET_REPORTS.invoke(results))
+                {
+                    WRITE_SECTION.invoke(results, report, writer, null, null);
+                }
+            }
+            finally
+            {
+                CLOSE_RESULTS.invoke(results);
+            }
+        }
+    }
+
+    /**
+     * Builds the synthetic input once per size.
+     *
+     * @throws Throwable If the lab cannot be reached or the input cannot be
+     *                   written.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable
+    {
+        final List<String> baseNames;
+
+        baseNames = Files.readAllLines(BASE_COUNTRIES_PATH);
+        countries = IntStream.range(0, size)
+                .mapToObj(index->syntheticName(baseNames, index))
+                .toList();
+
+        allSections = Lab.engine(List.of());
+        writer      = Lab.NEW_WRITER.invoke(OutputStream.nullOutputStream());
+
+        countriesPath = Files.createTempFile("countries-bench", ".txt");
+        dataPath      = Files.createTempFile("countries-bench-data", ".txt");
+        Files.write(countriesPath, countries);
+    }
+
+    /**
+     * Removes the files written for the trial.
+     *
+     * @throws Exception If a file cannot be removed.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        ((AutoCloseable) writer).close();
+        Files.deleteIfExists(countriesPath);
+        Files.deleteIfExists(dataPath);
+    }
+
+    /*
+     * Cycles through the real country names, adding a number once every
+     * name has been used so longer lists keep growing in variety.
+     */
+    private static String syntheticName(final List<String> baseNames,
+                                        final int index)
+    {
+        final String baseName;
+        final int    round;
+
+        baseName = baseNames.get(index % baseNames.size());
+        round    = index / baseNames.size();
+
+        if(round == 0)
+        {
+            return baseName;
+        }
+
+        return baseName + " " + round;
+    }
+
+    /**
+     * Selects the report section measured by {@link #section(Section)}.
+     * Keeping the parameter here means only that benchmark runs once per
+     * section.
+     */
+    @State(Scope.Benchmark)
+    public static class Section
+    {
+        @Param({"long-names",
+                "short-names",
+                "starts-with-a",
+                "ends-with-land",
+                "contains-united",
+                "ascending",
+                "descending",
+                "first-letters",
+                "count",
+                "longest",
+                "shortest",
+                "uppercase",
+                "character-counts",
+                "multi-word",
+                "starts-with-z",
+                "all-longer-than-3"})
+        private String name;
+
+        private Object engine;
+
+        /**
+         * Creates an engine running only the selected section.
+         *
+         * @throws Throwable If the section cannot be selected.
+         */
+        @Setup(Level.Trial)
+        public void setUp() throws Throwable
+        {
+            engine = Lab.engine(List.of(name));
+        }
+    }
+
+    /**
+     * Sets how many queries {@link #countryIndex(IndexQueries)} asks, and
+     * whether they are answered by scanning the names or through indexes
+     * built on the first query.
+     */
+    @State(Scope.Benchmark)
+    public static class IndexQueries
+    {
+        private static final List<String> PREFIXES   = List.of("A", "Uni", "Z", "Sou");
+        private static final List<String> SUFFIXES   = List.of("land", "ia", "stan", "a 7");
+        private static final List<String> SUBSTRINGS = List.of("united", "rep", "guinea", "and");
+
+        @Param({"1", "4", "16", "64", "256"})
+        private int queries;
+
+        @Param({"scan", "index"})
+        private String strategy;
+
+        private int indexAfterQueries;
+
+        /**
+         * Maps the strategy to the index's query count threshold.
+         */
+        @Setup(Level.Trial)
+        public void setUp()
+        {
+            indexAfterQueries = strategy.equals("scan") ? Integer.MAX_VALUE : 0;
+        }
+    }
+
+    /**
+     * Fills a country index and asks it a mix of prefix, suffix and
+     * substring queries, to find how many queries a run needs before
+     * building the index pays for itself.
+     *
+     * @param queries The number of queries and how they are answered.
+     * @return The number of matches, so no query is optimized away.
+     * @throws Throwable If the index fails.
+     */
+    @Benchmark
+    public long countryIndex(final IndexQueries queries) throws Throwable
+    {
+        final Object index;
+        long         matches;
+
+        index = Lab.NEW_INDEX.invoke(queries.indexAfterQueries);
+        for(final String country : countries)
+        {
+            Lab.INDEX_ADD.invoke(index, country);
+        }
+
+        matches = 0;
+        for(int i = 0; i < queries.queries; i++)
+        {
+            final List<?> found;
+
+            found = switch(i % 3)
+            {
+                case 0  -> (List<?>) Lab.STARTING_WITH.invoke(index, IndexQueries.PREFIXES.get(i / 3 % 4),
+                                                              Lab.CASE_INSENSITIVE);
+                case 1  -> (List<?>) Lab.ENDING_WITH.invoke(index, IndexQueries.SUFFIXES.get(i / 3 % 4),
+                                                            Lab.CASE_INSENSITIVE);
+                default -> (List<?>) Lab.CONTAINING.invoke(index, IndexQueries.SUBSTRINGS.get(i / 3 % 4),
+                                                           Lab.CASE_INSENSITIVE);
+            };
+            matches += found.size();
+        }
+
+        return matches;
+    }
+
+    /**
+     * Computes and writes a single report section to a discarding writer.
+     *
+     * @param section The section to run.
+     * @throws Throwable If the section fails.
+     */
+    @Benchmark
+    public void section(final Section section) throws Throwable
+    {
+        Lab.run(countries, section.engine, 1, writer);
+    }
+
+    /**
+     * @return The number of names left after the null and blank filter.
+     * @throws Throwable If the filter fails.
+     */
+    @Benchmark
+    public long filteredStream() throws Throwable
+    {
+        return ((Stream<?>) Lab.FILTERED_STREAM.invoke(countries.stream())).count();
+    }
+
+    /**
+     * Computes and writes every section in a single sequential pass.
+     *
+     * @throws Throwable If the pass fails.
+     */
+    @Benchmark
+    public void allSectionsSequential() throws Throwable
+    {
+        Lab.run(countries, allSections, 1, writer);
+    }
+
+    /**
+     * Computes and writes every section in one pass on every core.
+     *
+     * @throws Throwable If the pass fails.
+     */
+    @Benchmark
+    public void allSectionsParallel() throws Throwable
+    {
+        Lab.run(countries, allSections, Runtime.getRuntime().availableProcessors(), writer);
+    }
+
+    /**
+     * Runs the whole program, from reading the file to writing the report.
+     *
+     * @throws Throwable If the program fails.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void mainSequential() throws Throwable
+    {
+        Lab.MAIN.invoke(new String[] {"--countries-file=" + countriesPath,
+                                      "--output-file=" + dataPath});
+    }
+
+    /**
+     * Runs the whole program with the mapped reader on every core.
+     *
+     * @throws Throwable If the program fails.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void mainParallelMapped() throws Throwable
+    {
+        Lab.MAIN.invoke(new String[] {"--countries-file=" + countriesPath,
+                                      "--output-file=" + dataPath,
+                                      "--input=mapped",
+                                      "--threads=0"});
+    }
+
+    /**
+     * Runs the suite with the GC profiler attached.
+     *
+     * @param args Optional regular expression selecting benchmark methods,
+     *             for example {@code section} or {@code main.*}.
+     * @throws RunnerException If JMH fails to run.
+     */
+    public static void main(final String[] args) throws RunnerException
+    {
+        final String  methods;
+        final Options options;
+
+        methods = args.length > 0 ? args[0] : ".*";
+        options = new OptionsBuilder()
+                .include(CountryLabBenchmark.class.getName() + "." + methods)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
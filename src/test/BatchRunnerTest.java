@@ -0,0 +1,142 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    Path inputs;
+    Path outputs;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        inputs = tempDir.resolve("regions");
+        outputs = tempDir.resolve("reports");
+        Files.createDirectories(inputs.resolve("africa"));
+        Files.writeString(inputs.resolve("europe.txt"), "France\n");
+        Files.writeString(inputs.resolve("asia.txt"), "Japan\n");
+        Files.writeString(inputs.resolve("notes.md"), "ignore me\n");
+        Files.writeString(inputs.resolve("africa").resolve("west.txt"), "Ghana\n");
+    }
+
+    private BatchRunner copying(int concurrency) {
+        return new BatchRunner(outputs, concurrency, (countriesPath, dataPath) -> {
+            Files.createDirectories(dataPath.getParent());
+            Files.copy(countriesPath, dataPath);
+        });
+    }
+
+    @Test
+    public void testDirectoryMirrorsEveryFile() throws Exception {
+        assertEquals(4, copying(2).run(inputs.toString()));
+        assertEquals("France\n", Files.readString(outputs.resolve("europe-data.txt")));
+        assertEquals("Ghana\n", Files.readString(outputs.resolve("africa").resolve("west-data.txt")));
+        assertTrue(Files.exists(outputs.resolve("notes-data.txt")));
+    }
+
+    @Test
+    public void testGlobSelectsMatchingFiles() throws Exception {
+        assertEquals(2, copying(2).run(inputs + "/*.txt"));
+        assertTrue(Files.exists(outputs.resolve("asia-data.txt")));
+        assertFalse(Files.exists(outputs.resolve("notes-data.txt")));
+        assertFalse(Files.exists(outputs.resolve("africa")));
+    }
+
+    @Test
+    public void testGeneratedFilesAreNotInputs() throws Exception {
+        Files.writeString(inputs.resolve("survey-data.txt"), "Peru\n");
+        Files.writeString(inputs.resolve("state.tmp"), "Chad\n");
+
+        Path nested = inputs.resolve("reports");
+        Files.createDirectories(nested);
+        Files.writeString(nested.resolve("summary.txt"), "Chad\n");
+        assertEquals(6, new BatchRunner(nested, 2, (countriesPath, dataPath) -> { }).run(inputs.toString()));
+        assertEquals(1, new BatchRunner(nested, 2, (countriesPath, dataPath) -> { }).run(nested.toString()),
+                     "inputs inside the output directory are still read when named directly");
+        Files.delete(nested.resolve("summary.txt"));
+        Files.delete(nested);
+
+        BatchRunner beside = new BatchRunner(inputs, 2, (countriesPath, dataPath) -> {
+            String stem = dataPath.getFileName().toString().replace(".txt", "");
+            Files.copy(countriesPath, dataPath, StandardCopyOption.REPLACE_EXISTING);
+            Files.writeString(dataPath.resolveSibling(stem + "-count.txt.gz"), "");
+            Files.createDirectories(dataPath.resolveSibling(dataPath.getFileName() + ".parts"));
+            Files.writeString(dataPath.resolveSibling(dataPath.getFileName() + ".parts").resolve("count.part"), "1\n");
+        });
+
+        assertEquals(6, beside.run(inputs.toString()));
+        assertEquals(6, beside.run(inputs.toString()), "a second run should see the same inputs");
+        assertEquals("Peru\n", Files.readString(inputs.resolve("survey-data-data.txt")));
+    }
+
+    @Test
+    public void testInputsWritingTheSameReportFail() throws Exception {
+        Files.writeString(inputs.resolve("europe.csv"), "France\n");
+        AtomicInteger runs = new AtomicInteger();
+
+        IOException failure = assertThrows(IOException.class,
+            () -> new BatchRunner(outputs, 2, (countriesPath, dataPath) -> runs.incrementAndGet()).run(inputs.toString()));
+        assertTrue(failure.getMessage().contains("europe-data.txt"));
+        assertEquals(0, runs.get(), "no report should be written");
+    }
+
+    @Test
+    public void testConcurrencyIsBounded() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        for (int i = 0; i < 40; i++) {
+            Files.writeString(inputs.resolve("extra" + i + ".txt"), "Chad\n");
+        }
+
+        BatchRunner runner = new BatchRunner(outputs, 3, (countriesPath, dataPath) -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+        });
+
+        assertEquals(44, runner.run(inputs.toString()));
+        assertTrue(peak.get() <= 3, "at most three inputs should run at once");
+    }
+
+    @Test
+    public void testFailuresAreCollected() throws Exception {
+        Set<Path> seen = ConcurrentHashMap.newKeySet();
+        BatchRunner runner = new BatchRunner(outputs, 2, (countriesPath, dataPath) -> {
+            seen.add(countriesPath.getFileName());
+            if (countriesPath.getFileName().toString().startsWith("a")) {
+                throw new IOException("broken " + countriesPath.getFileName());
+            }
+        });
+
+        IOException failure = assertThrows(IOException.class, () -> runner.run(inputs.toString()));
+        assertEquals(1, failure.getSuppressed().length);
+        assertEquals(4, seen.size(), "a failure should not stop the other inputs");
+    }
+
+    @Test
+    public void testPlatformThreadsCanMeasureAllocation() throws Exception {
+        Set<Boolean> virtual = ConcurrentHashMap.newKeySet();
+        Set<Long> allocated = ConcurrentHashMap.newKeySet();
+        new BatchRunner(outputs, 2, (countriesPath, dataPath) -> virtual.add(Thread.currentThread().isVirtual()))
+            .run(inputs.toString());
+        new BatchRunner(outputs, 2, Thread.ofPlatform().factory(), (countriesPath, dataPath) -> {
+            ReportMetrics.Snapshot start = ReportMetrics.start(false);
+            Files.readString(countriesPath);
+            allocated.add(start.allocatedBytesSince());
+        }).run(inputs.toString());
+
+        assertEquals(Set.of(true), virtual);
+        assertTrue(allocated.stream().allMatch(bytes -> bytes >= 0), "allocation should be measured");
+    }
+}
@@ -0,0 +1,149 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+public class CountryIndexTest {
+
+    List<String> names;
+    CountryIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(2522);
+        List<String> base = List.of("Finland", "Iceland", "Ireland", "England", "LAND", "Land",
+                "Austria", "Australia", "Algeria", "albania", "Zambia", "Zimbabwe",
+                "United States", "United Kingdom", "The United Republic", "Chad", "Cuba", "A");
+        names = IntStream.range(0, 2_000)
+            .mapToObj(i -> base.get(random.nextInt(base.size())) + (i % 3 == 0 ? "" : " " + i))
+            .toList();
+        index = new CountryIndex();
+        names.forEach(index::add);
+    }
+
+    private List<String> scan(Predicate<String> filter) {
+        return names.stream().filter(filter).toList();
+    }
+
+    @Test
+    public void testPrefixQueries() {
+        assertEquals(scan(n -> n.startsWith("A")), index.startingWith("A", MatchMode.EXACT));
+        assertEquals(scan(n -> n.startsWith("Aus")), index.startingWith("Aus", MatchMode.EXACT));
+        assertEquals(scan(n -> n.regionMatches(true, 0, "al", 0, 2)), index.startingWith("al", MatchMode.CASE_INSENSITIVE));
+        assertEquals(names, index.startingWith("", MatchMode.EXACT));
+        assertTrue(index.anyStartingWith("Z", MatchMode.EXACT));
+        assertFalse(index.anyStartingWith("z", MatchMode.EXACT));
+        assertTrue(index.startingWith("Q", MatchMode.CASE_INSENSITIVE).isEmpty());
+    }
+
+    @Test
+    public void testSuffixQueries() {
+        assertEquals(scan(n -> n.endsWith("land")), index.endingWith("land", MatchMode.EXACT));
+        assertEquals(scan(n -> n.length() >= 4 && n.regionMatches(true, n.length() - 4, "land", 0, 4)),
+                     index.endingWith("land", MatchMode.CASE_INSENSITIVE));
+    }
+
+    @Test
+    public void testSubstringQueries() {
+        assertEquals(scan(n -> n.contains("United")), index.containing("United", MatchMode.EXACT));
+        assertEquals(scan(n -> n.contains("ab")), index.containing("ab", MatchMode.EXACT));
+        assertEquals(scan(n -> n.contains("d 1")), index.containing("d 1", MatchMode.EXACT));
+        assertTrue(index.containing("Atlantis", MatchMode.EXACT).isEmpty());
+        assertEquals(scan(n -> n.toLowerCase().contains("united")), index.containing("UNITED", MatchMode.CASE_INSENSITIVE));
+    }
+
+    @Test
+    public void testAccentInsensitiveQueries() {
+        CountryIndex accented = new CountryIndex();
+        List.of("Côte d'Ivoire", "Cote d'Ivoire", "São Tomé", "Curaçao", "ÅLAND", "Réunion").forEach(accented::add);
+
+        assertEquals(List.of("Côte d'Ivoire", "Cote d'Ivoire"), accented.startingWith("cote", MatchMode.ACCENT_INSENSITIVE));
+        assertEquals(List.of("Côte d'Ivoire"), accented.startingWith("Côte", MatchMode.EXACT));
+        assertEquals(List.of("ÅLAND"), accented.endingWith("aland", MatchMode.ACCENT_INSENSITIVE));
+        assertEquals(List.of(), accented.endingWith("aland", MatchMode.CASE_INSENSITIVE));
+        assertEquals(List.of("São Tomé", "Curaçao"), accented.containing("ao", MatchMode.ACCENT_INSENSITIVE));
+        assertEquals(List.of("São Tomé"), accented.containing("TOME", MatchMode.ACCENT_INSENSITIVE));
+        assertTrue(accented.anyStartingWith("reu", MatchMode.ACCENT_INSENSITIVE));
+    }
+
+    @Test
+    public void testCaseInsensitiveScansFoldEveryCodePoint() {
+        CountryIndex folded = new CountryIndex();
+        List.of("ÎLE-DE-FRANCE", "straße", "Ωmega", "𐐀𐐁 Deseret").forEach(folded::add);
+
+        assertEquals(List.of("ÎLE-DE-FRANCE"), folded.startingWith("île", MatchMode.CASE_INSENSITIVE));
+        assertEquals(List.of("straße"), folded.endingWith("ẞE", MatchMode.CASE_INSENSITIVE));
+        assertEquals(List.of("Ωmega"), folded.containing("ωM", MatchMode.CASE_INSENSITIVE));
+        assertEquals(List.of("𐐀𐐁 Deseret"), folded.startingWith("𐐨𐐩", MatchMode.CASE_INSENSITIVE));
+        assertEquals(List.of("𐐀𐐁 Deseret"), folded.endingWith("ET", MatchMode.CASE_INSENSITIVE));
+        assertEquals(List.of("𐐀𐐁 Deseret"), folded.containing("𐐩 d", MatchMode.CASE_INSENSITIVE));
+        assertEquals(List.of(), folded.endingWith("a longer suffix than any name", MatchMode.CASE_INSENSITIVE));
+    }
+
+    @Test
+    public void testIndexedQueriesMatchScannedQueries() {
+        CountryIndex indexed = new CountryIndex(0);
+        names.forEach(indexed::add);
+
+        for (int round = 0; round < 2 * CountryIndex.DEFAULT_INDEX_AFTER_QUERIES; round++) {
+            for (String text : List.of("", "a", "Al", "land", "UNITED", "d 1", "ab", "Atlantis", "1")) {
+                for (MatchMode mode : MatchMode.values()) {
+                    assertEquals(scan(n -> mode.key(n).startsWith(mode.key(text))), indexed.startingWith(text, mode));
+                    assertEquals(scan(n -> mode.key(n).endsWith(mode.key(text))), index.endingWith(text, mode));
+                    assertEquals(scan(n -> mode.key(n).contains(mode.key(text))), indexed.containing(text, mode));
+                    assertEquals(index.containing(text, mode), indexed.containing(text, mode));
+                    assertEquals(index.anyStartingWith(text, mode), indexed.anyStartingWith(text, mode));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRejectsNegativeQueryCounts() {
+        assertThrows(IllegalArgumentException.class, () -> new CountryIndex(-1));
+    }
+
+    @Test
+    public void testCombineAndRequery() {
+        CountryIndex first = new CountryIndex();
+        CountryIndex second = new CountryIndex();
+        names.subList(0, 1_000).forEach(first::add);
+        assertEquals(names.subList(0, 1_000).stream().filter(n -> n.startsWith("A")).toList(),
+                     first.startingWith("A", MatchMode.EXACT));
+        names.subList(1_000, names.size()).forEach(second::add);
+
+        first.combine(second);
+        assertEquals(names.size(), first.size());
+        assertEquals(index.startingWith("A", MatchMode.EXACT), first.startingWith("A", MatchMode.EXACT));
+    }
+
+    @Test
+    public void testGramTableGrowsWhileTheFirstNameIsIndexed() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 1_200; i++) {
+            builder.append((char) ('\u4e00' + i));
+        }
+        String first = builder.toString();
+        CountryIndex indexed = new CountryIndex(0);
+        indexed.add(first);
+        names.forEach(indexed::add);
+
+        for (int from = 0; from + 3 <= first.length(); from++) {
+            assertEquals(List.of(first), indexed.containing(first.substring(from, from + 3), MatchMode.EXACT));
+        }
+        assertEquals(scan(n -> n.contains("and")), indexed.containing("and", MatchMode.EXACT));
+    }
+
+    @Test
+    public void testScansSeeNamesAddedAfterAQuery() {
+        CountryIndex small = new CountryIndex();
+        small.add("Côte d'Ivoire");
+        assertEquals(List.of("Côte d'Ivoire"), small.containing("co", MatchMode.ACCENT_INSENSITIVE));
+        assertEquals(List.of(), small.startingWith("COL", MatchMode.ACCENT_INSENSITIVE));
+
+        small.add("Colombia");
+        assertEquals(List.of("Côte d'Ivoire", "Colombia"), small.containing("co", MatchMode.ACCENT_INSENSITIVE));
+        assertEquals(List.of("Colombia"), small.startingWith("COL", MatchMode.ACCENT_INSENSITIVE));
+    }
+}
@@ -35,6 +35,13 @@ public class CountryLabTest {
         assertTrue(Files.exists(dataFile), "data.txt file should be created");
     }
 
+    @Test
+    public void testNoCheckpointIsLeftByDefault() throws IOException {
+        try (var files = Files.list(matchesDir)) {
+            assertEquals(List.of(dataFile), files.toList(), "only data.txt should be written without --checkpoint");
+        }
+    }
+
     @Test
     public void testCountryNamesLongerThan10Characters() throws IOException {
         List<String> lines = Files.readAllLines(dataFile);
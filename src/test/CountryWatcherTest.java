@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CountryWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    Path countries;
+    AtomicInteger runs;
+    CountryWatcher watcher;
+    Thread watchThread;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        countries = tempDir.resolve("countries.txt");
+        Files.writeString(countries, "Chad\n");
+        runs = new AtomicInteger();
+        watcher = new CountryWatcher(countries, 300, runs::incrementAndGet);
+        watchThread = new Thread(() -> {
+            try {
+                watcher.watch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        watchThread.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        watcher.close();
+        watchThread.join(5_000);
+        assertFalse(watchThread.isAlive(), "closing the watcher should stop it");
+    }
+
+    private void awaitRuns(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (runs.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    public void testBurstOfWritesIsMerged() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(countries, "Chad\nCuba " + i + "\n");
+            Thread.sleep(20);
+        }
+
+        awaitRuns(1);
+        Thread.sleep(1_000);
+        assertTrue(runs.get() >= 1, "a change should regenerate the report");
+        assertTrue(runs.get() < 5, "a burst of writes should be merged");
+    }
+
+    @Test
+    public void testOtherFilesAreIgnored() throws Exception {
+        Files.writeString(tempDir.resolve("other.txt"), "Peru\n");
+        Thread.sleep(1_000);
+        assertEquals(0, runs.get());
+    }
+}
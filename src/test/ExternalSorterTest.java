@@ -0,0 +1,109 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class ExternalSorterTest {
+
+    List<String> names;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(2522);
+        names = IntStream.range(0, 5_000)
+            .mapToObj(i -> "Country " + random.nextInt(1_000))
+            .toList();
+    }
+
+    private List<String> drain(Stream<String> stream) {
+        try (stream) {
+            return stream.toList();
+        }
+    }
+
+    private void assertOrders(ExternalSorter sorter) {
+        List<String> ascending = names.stream().sorted().toList();
+        List<String> descending = names.stream().sorted(Comparator.reverseOrder()).toList();
+
+        assertEquals(names, drain(sorter.inputOrder()));
+        assertEquals(ascending, drain(sorter.ascending()));
+        assertEquals(descending, drain(sorter.descending()));
+    }
+
+    @Test
+    public void testInMemory() throws IOException {
+        try (ExternalSorter sorter = new ExternalSorter(ExternalSorter.UNLIMITED_BUDGET)) {
+            names.forEach(sorter::add);
+            assertOrders(sorter);
+            assertEquals(0, sorter.getRunCount());
+        }
+    }
+
+    @Test
+    public void testSpilledRuns() throws IOException {
+        try (ExternalSorter sorter = new ExternalSorter(4_096)) {
+            names.forEach(sorter::add);
+            assertTrue(sorter.getRunCount() > 1, "small budget should spill several runs");
+            assertOrders(sorter);
+        }
+    }
+
+    @Test
+    public void testCombineKeepsInputOrder() throws IOException {
+        try (ExternalSorter first = new ExternalSorter(4_096);
+             ExternalSorter second = new ExternalSorter(4_096)) {
+            names.subList(0, 3_000).forEach(first::add);
+            names.subList(3_000, names.size()).forEach(second::add);
+            first.combine(second);
+            assertOrders(first);
+        }
+    }
+
+    @Test
+    public void testManyRunsAreMergedInPasses() throws IOException {
+        try (ExternalSorter sorter = new ExternalSorter(256)) {
+            names.forEach(sorter::add);
+            assertTrue(sorter.getRunCount() > 64, "tiny budget should spill more runs than one merge opens");
+            assertOrders(sorter);
+            assertTrue(sorter.getRunCount() <= 64);
+        }
+    }
+
+    @Test
+    public void testSharedBudgetBoundsEverySorter() throws IOException {
+        ExternalSorter.MemoryBudget budget = new ExternalSorter.MemoryBudget(4_096);
+        try (ExternalSorter first = new ExternalSorter(budget);
+             ExternalSorter second = new ExternalSorter(budget)) {
+            for (int i = 0; i < names.size(); i++) {
+                (i < 3_000 ? first : second).add(names.get(i));
+                assertTrue(budget.getUsed() <= 4_096, "shared budget exceeded");
+            }
+            first.combine(second);
+            assertOrders(first);
+        }
+        assertEquals(0, budget.getUsed());
+    }
+
+    @Test
+    public void testSortersSharingAPoolKeepTheirOwnNames() throws IOException {
+        NamePool pool = new NamePool();
+        try (ExternalSorter first = new ExternalSorter(4_096);
+             ExternalSorter second = new ExternalSorter(ExternalSorter.UNLIMITED_BUDGET)) {
+            first.usePool(pool);
+            second.usePool(pool);
+            for (String name : names) {
+                int id = pool.add(name);
+                first.addId(id);
+                if (name.endsWith("7")) {
+                    second.addId(id);
+                }
+            }
+
+            assertOrders(first);
+            assertEquals(names.stream().filter(name -> name.endsWith("7")).sorted().toList(), drain(second.ascending()));
+            assertThrows(IllegalStateException.class, () -> first.usePool(new NamePool()));
+        }
+    }
+}
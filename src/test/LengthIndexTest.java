@@ -0,0 +1,52 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.*;
+import java.util.stream.IntStream;
+
+public class LengthIndexTest {
+
+    List<String> names;
+    LengthIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(2522);
+        names = IntStream.range(0, 3_000)
+            .mapToObj(i -> "x".repeat(random.nextInt(25)))
+            .toList();
+        index = new LengthIndex();
+        names.forEach(index::add);
+    }
+
+    @Test
+    public void testLengthRanges() {
+        assertEquals(names.stream().filter(n -> n.length() > 10).toList(),
+                     index.withLengthBetween(11, Integer.MAX_VALUE));
+        assertEquals(names.stream().filter(n -> n.length() >= 3 && n.length() <= 7).toList(),
+                     index.withLengthBetween(3, 7));
+        assertTrue(index.withLengthBetween(100, 200).isEmpty());
+        assertTrue(index.withLengthBetween(9, 8).isEmpty());
+    }
+
+    @Test
+    public void testExtremes() {
+        assertEquals(names.stream().filter(n -> n.length() == 24).toList(), index.longest());
+        assertEquals(names.stream().filter(String::isEmpty).toList(), index.shortest());
+        assertFalse(index.allLongerThan(0));
+        assertTrue(new LengthIndex().longest().isEmpty());
+        assertTrue(new LengthIndex().allLongerThan(3));
+    }
+
+    @Test
+    public void testCombineKeepsInputOrder() {
+        LengthIndex first = new LengthIndex();
+        LengthIndex second = new LengthIndex();
+        names.subList(0, 1_234).forEach(first::add);
+        names.subList(1_234, names.size()).forEach(second::add);
+
+        first.combine(second);
+        assertEquals(names.size(), first.size());
+        assertEquals(index.withLengthBetween(0, 12), first.withLengthBetween(0, 12));
+        assertEquals(index.longest(), first.longest());
+    }
+}
@@ -0,0 +1,57 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class MappedLineSpliteratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<String> read(String content) throws IOException {
+        Path file = tempDir.resolve("countries.txt");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        try (Stream<String> lines = MappedLineSpliterator.lines(file)) {
+            return lines.toList();
+        }
+    }
+
+    @Test
+    public void testAllLineBreakStyles() throws IOException {
+        assertEquals(List.of("Chad", "Cuba", "Peru", "Togo"), read("Chad\nCuba\r\nPeru\rTogo"));
+    }
+
+    @Test
+    public void testBlankLinesAreSkipped() throws IOException {
+        assertEquals(List.of("Chad", "Cuba"), read("\n  \t\nChad\n\r\n\nCuba\n\n"));
+    }
+
+    @Test
+    public void testMultiByteNames() throws IOException {
+        assertEquals(List.of("Côte d'Ivoire", "São Tomé"), read("Côte d'Ivoire\nSão Tomé\n"));
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        assertEquals(List.of(), read(""));
+    }
+
+    @Test
+    public void testParallelSplitsOnLineBoundaries() throws IOException {
+        List<String> expected = IntStream.range(0, 100_000)
+            .mapToObj(i -> "Country " + i)
+            .toList();
+        Path file = tempDir.resolve("large.txt");
+        Files.writeString(file, expected.stream().collect(Collectors.joining("\r\n")));
+
+        try (Stream<String> lines = MappedLineSpliterator.lines(file)) {
+            assertEquals(expected, lines.parallel().toList());
+        }
+    }
+}
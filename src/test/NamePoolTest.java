@@ -0,0 +1,73 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.*;
+
+public class NamePoolTest {
+
+    @Test
+    public void testStoresEachDistinctNameOnce() {
+        NamePool pool = new NamePool();
+        String first = new String("Chad");
+        String second = new String("Chad");
+
+        assertEquals(0, pool.add(first));
+        assertEquals(0, pool.add(second));
+        assertEquals(1, pool.add("Cuba"));
+        assertEquals(0, pool.add("Chad"));
+
+        assertSame(first, pool.name(0));
+        assertEquals(3, pool.count(0));
+        assertEquals(1, pool.count(1));
+        assertArrayEquals(new int[] {0}, pool.duplicates());
+    }
+
+    @Test
+    public void testCombineRemapsIds() {
+        List<String> names = new ArrayList<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 3_000; i++) {
+            names.add("Country " + random.nextInt(500));
+        }
+
+        NamePool whole = new NamePool();
+        names.forEach(whole::add);
+        NamePool first = new NamePool();
+        NamePool second = new NamePool();
+        names.subList(0, 1_700).forEach(first::add);
+        names.subList(1_700, names.size()).forEach(second::add);
+        first.combine(second);
+
+        assertArrayEquals(whole.duplicates(), first.duplicates());
+        for (int id : first.duplicates()) {
+            assertEquals(whole.name(id), first.name(id));
+            assertEquals(whole.count(id), first.count(id));
+        }
+    }
+
+    @Test
+    public void testCombineMapsTheOtherPoolsIds() {
+        NamePool first = new NamePool();
+        NamePool second = new NamePool();
+        first.add("Chad");
+        first.add("Cuba");
+        second.add("Peru");
+        second.add("Chad");
+
+        assertArrayEquals(new int[] {2, 0}, first.combine(second));
+        assertEquals(3, first.size());
+        assertEquals(2, first.count(0));
+        assertEquals(2, first.find("Peru"));
+        assertEquals(-1, first.find("Fiji"));
+    }
+
+    @Test
+    public void testSortOrdersIdsByName() {
+        NamePool pool = new NamePool();
+        for (String name : List.of("Peru", "Chad", "Cuba", "Angola")) {
+            pool.add(name);
+        }
+
+        assertArrayEquals(new int[] {3, 1, 2, 0}, pool.sort(new int[] {0, 1, 2, 3}));
+        assertArrayEquals(new int[] {1, 0}, pool.sort(new int[] {0, 1}));
+    }
+}
@@ -0,0 +1,45 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+public class OutputCompressionTest {
+
+    private byte[] write(OutputCompression compression, int level, String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ReportWriter writer = new ReportWriter(compression.wrap(out, level))) {
+            writer.writeLines(Collections.nCopies(10_000, text));
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testGzipRoundTripsAtEveryLevel() throws IOException {
+        String expected = String.join(System.lineSeparator(), Collections.nCopies(10_000, "Côte d'Ivoire"))
+                          + System.lineSeparator();
+        byte[] plain = write(OutputCompression.NONE, OutputCompression.DEFAULT_LEVEL, "Côte d'Ivoire");
+        assertEquals(expected, new String(plain, StandardCharsets.UTF_8));
+
+        for (int level : new int[] {0, 1, 9, OutputCompression.DEFAULT_LEVEL}) {
+            byte[] compressed = write(OutputCompression.GZIP, level, "Côte d'Ivoire");
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                assertArrayEquals(plain, in.readAllBytes());
+            }
+            if (level != 0) {
+                assertTrue(compressed.length < plain.length / 10);
+            }
+        }
+    }
+
+    @Test
+    public void testResolveAddsTheExtensionOnce() {
+        assertEquals(Path.of("out", "data.txt.gz"), OutputCompression.GZIP.resolve(Path.of("out", "data.txt")));
+        assertEquals(Path.of("data.txt.gz"), OutputCompression.GZIP.resolve(Path.of("data.txt.gz")));
+        assertEquals(Path.of("data.txt"), OutputCompression.NONE.resolve(Path.of("data.txt")));
+    }
+}
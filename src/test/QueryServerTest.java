@@ -0,0 +1,103 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class QueryServerTest {
+
+    List<String> names;
+    AtomicInteger loads;
+    QueryServer server;
+    HttpClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        names = new ArrayList<>(List.of("Chad", "Afghanistan", "Zambia", "New Zealand", "Iceland", "Cuba"));
+        loads = new AtomicInteger();
+        ReportEngine engine = new ReportEngine(Reports.builtIn(ExternalSorter.UNLIMITED_BUDGET));
+        server = new QueryServer(0, 32, () -> {
+            loads.incrementAndGet();
+            return names.stream().collect(engine.collector());
+        });
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testServesSectionsAndPages() throws Exception {
+        assertTrue(get("/sections").body().startsWith("long-names\nshort-names\n"));
+        assertEquals("6\n", get("/sections/count").body());
+        assertEquals("Afghanistan\nChad\n", get("/sections/ascending?limit=2").body());
+        assertEquals("Iceland\nNew Zealand\n", get("/sections/ascending?offset=3&limit=2").body());
+        assertEquals("", get("/sections/ascending?offset=50").body());
+        assertEquals(404, get("/sections/no-such-section").statusCode());
+        assertEquals(400, get("/sections/ascending?limit=-1").statusCode());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testReloadInvalidatesTheCache() throws Exception {
+        assertEquals("6\n", get("/sections/count").body());
+        names.add("Peru");
+        assertEquals("6\n", get("/sections/count").body());
+
+        server.reload();
+        assertEquals("7\n", get("/sections/count").body());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testPagesLargerThanTheCacheAreStillServed() throws Exception {
+        String all = "Afghanistan\nChad\nCuba\nIceland\nNew Zealand\nZambia\n";
+        assertEquals(all, get("/sections/ascending").body());
+        assertEquals(all, get("/sections/ascending").body());
+        assertEquals("", get("/sections/ascending?limit=0").body());
+        assertEquals("Zambia\n", get("/sections/ascending?offset=5&limit=5").body());
+    }
+
+    @Test
+    public void testResultsAreClosedWhenThePortIsTaken() {
+        AtomicBoolean closed = new AtomicBoolean();
+        Report<Closeable> closing = Report.of("closing", "",
+            Collectors.collectingAndThen(Collectors.counting(), count -> () -> closed.set(true)),
+            (result, writer) -> { });
+
+        assertThrows(IOException.class, () -> new QueryServer(server.getPort(), 32,
+            () -> names.stream().collect(new ReportEngine(List.of(closing)).collector())));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testAnswersAdHocQueries() throws Exception {
+        assertEquals("Afghanistan\n", get("/names?starts-with=A").body());
+        assertEquals("", get("/names?starts-with=a").body());
+        assertEquals("Afghanistan\n", get("/names?starts-with=a&match=case-insensitive").body());
+        assertEquals("New Zealand\nIceland\n", get("/names?ends-with=land").body());
+        assertEquals("Zambia\nNew Zealand\n", get("/names?contains=Z").body());
+        for (int i = 0; i < 2 * CountryIndex.DEFAULT_INDEX_AFTER_QUERIES; i++) {
+            assertEquals("New Zealand\n", get("/names?contains=zeal&match=case-insensitive").body());
+        }
+        assertEquals(400, get("/names").statusCode());
+        assertEquals(400, get("/names?starts-with=A&contains=B").statusCode());
+        assertEquals(400, get("/names?contains=A&match=fuzzy").statusCode());
+        assertEquals(1, loads.get());
+    }
+}
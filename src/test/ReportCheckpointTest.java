@@ -0,0 +1,77 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+public class ReportCheckpointTest {
+
+    @TempDir
+    Path tempDir;
+
+    Path parts;
+
+    @BeforeEach
+    public void setUp() {
+        parts = tempDir.resolve("data.txt.parts");
+    }
+
+    private void write(ReportCheckpoint checkpoint, String section, String text) throws IOException {
+        checkpoint.write(section, out -> out.write(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testResumesAfterTheLastCompletedSection() throws IOException {
+        ReportCheckpoint checkpoint = new ReportCheckpoint(parts, "run");
+        write(checkpoint, "first", "one\n");
+        write(checkpoint, "second", "two\n");
+        assertThrows(IOException.class, () -> checkpoint.write("third", out -> {
+            out.write("thr".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("disk full");
+        }));
+        assertFalse(checkpoint.isComplete("third"));
+
+        ReportCheckpoint resumed = new ReportCheckpoint(parts, "run");
+        assertTrue(resumed.isComplete("first"));
+        assertTrue(resumed.isComplete("second"));
+        assertFalse(resumed.isComplete(List.of("first", "second", "third")));
+        assertThrows(IOException.class, () -> resumed.publish(List.of("first", "third"), tempDir.resolve("data.txt")));
+
+        write(resumed, "third", "three\n");
+        resumed.publish(List.of("first", "second", "third"), tempDir.resolve("data.txt"));
+        resumed.delete();
+
+        assertEquals("one\ntwo\nthree\n", Files.readString(tempDir.resolve("data.txt")));
+        assertTrue(Files.notExists(parts));
+    }
+
+    @Test
+    public void testDiscardsDamagedPartsAndOtherRuns() throws IOException {
+        ReportCheckpoint checkpoint = new ReportCheckpoint(parts, "run");
+        write(checkpoint, "first", "one\n");
+        write(checkpoint, "second", "two\n");
+        write(checkpoint, "third", "three\n");
+        Files.writeString(parts.resolve("second.part"), "tw0\n");
+
+        ReportCheckpoint resumed = new ReportCheckpoint(parts, "run");
+        assertTrue(resumed.isComplete("first"));
+        assertFalse(resumed.isComplete("second"));
+        assertFalse(resumed.isComplete("third"));
+        assertTrue(Files.notExists(parts.resolve("third.part")));
+
+        assertFalse(new ReportCheckpoint(parts, "changed input").isComplete("first"));
+    }
+
+    @Test
+    public void testPublishEachMovesTheParts() throws IOException {
+        ReportCheckpoint checkpoint = new ReportCheckpoint(parts, "run");
+        write(checkpoint, "count", "6");
+        checkpoint.publishEach(Map.of("count", tempDir.resolve("data-count.txt")));
+        checkpoint.delete();
+
+        assertEquals("6", Files.readString(tempDir.resolve("data-count.txt")));
+        assertTrue(Files.notExists(parts));
+    }
+}
@@ -0,0 +1,263 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ReportEngineTest {
+
+    List<Report<?>> reports;
+    ReportEngine engine;
+    List<String> names;
+
+    @BeforeEach
+    public void setUp() {
+        reports = Reports.builtIn(ExternalSorter.UNLIMITED_BUDGET);
+        engine = new ReportEngine(reports);
+        names = List.of("Chad", "Afghanistan", "Zambia", "New Zealand", "Iceland", "Cuba");
+    }
+
+    private Report<?> section(String name) {
+        return reports.stream().filter(report -> report.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private String write(ReportResults results) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ReportWriter writer = new ReportWriter(out)) {
+            for (Report<?> report : results.getReports()) {
+                results.writeSection(report, writer, null, null);
+            }
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testSectionsKeepInputOrder() throws IOException {
+        try (ReportResults results = names.stream().collect(engine.collector())) {
+            LengthIndex lengths = (LengthIndex) results.get(section("long-names"));
+            assertEquals(List.of("Afghanistan", "New Zealand"), lengths.withLengthBetween(11, Integer.MAX_VALUE));
+            assertEquals(List.of("Chad", "Cuba"), lengths.withLengthBetween(0, 4));
+            CountryIndex index = (CountryIndex) results.get(section("ends-with-land"));
+            assertEquals(List.of("New Zealand", "Iceland"), index.endingWith("land", MatchMode.CASE_INSENSITIVE));
+        }
+    }
+
+    @Test
+    public void testExtremesCollectEveryTie() throws IOException {
+        try (ReportResults results = names.stream().collect(engine.collector())) {
+            assertEquals(List.of("Afghanistan", "New Zealand"), ((LengthIndex) results.get(section("longest"))).longest());
+            assertEquals(List.of("Chad", "Cuba"), ((LengthIndex) results.get(section("shortest"))).shortest());
+        }
+    }
+
+    @Test
+    public void testAggregates() throws IOException {
+        try (ReportResults results = names.stream().collect(engine.collector())) {
+            assertEquals(6L, results.get(section("count")));
+            assertEquals(List.of("C", "A", "Z", "N", "I"), List.copyOf((Collection<?>) results.get(section("first-letters"))));
+            assertTrue(((CountryIndex) results.get(section("starts-with-z"))).anyStartingWith("Z", MatchMode.EXACT));
+            assertTrue(((LengthIndex) results.get(section("all-longer-than-3"))).allLongerThan(3));
+        }
+    }
+
+    @Test
+    public void testSortedSectionsShareOneCollector() {
+        assertSame(section("ascending").getCollector(), section("descending").getCollector());
+    }
+
+    @Test
+    public void testIndexedSectionsShareOneCollector() {
+        assertSame(section("starts-with-a").getCollector(), section("contains-united").getCollector());
+        assertSame(section("starts-with-a").getCollector(), section("ends-with-land").getCollector());
+    }
+
+    @Test
+    public void testParallelOutputMatchesSequential() throws IOException {
+        List<String> many = IntStream.range(0, 20_000)
+            .mapToObj(i -> (i % 7 == 0 ? "A" : "Z") + "land".repeat(i % 5) + " United " + i)
+            .toList();
+
+        try (ReportResults sequential = many.stream().collect(engine.collector());
+             ReportResults parallel = many.parallelStream().collect(engine.collector())) {
+            assertEquals(write(sequential), write(parallel));
+        }
+    }
+
+    @Test
+    public void testConfigurableLengthThresholds() throws IOException {
+        List<Report<?>> custom = Reports.select(List.of("long-names", "all-longer-than-3"),
+                                                new ReportSettings(ExternalSorter.UNLIMITED_BUDGET, 6, 5, 4, null, 100, 3));
+
+        try (ReportResults results = names.stream().collect(new ReportEngine(custom).collector())) {
+            assertEquals("Country names longer than 6 characters:\n"
+                         + String.join(System.lineSeparator(), "Afghanistan", "New Zealand", "Iceland")
+                         + System.lineSeparator()
+                         + "\n-----All countries longer than 4------\nfalse",
+                         write(results));
+        }
+    }
+
+    @Test
+    public void testLongNameLengthAtIntegerMaxValue() throws IOException {
+        List<Report<?>> custom = Reports.select(List.of("long-names"),
+                                                new ReportSettings(ExternalSorter.UNLIMITED_BUDGET, Integer.MAX_VALUE, 5, 4, null, 100, 3));
+
+        try (ReportResults results = names.stream().collect(new ReportEngine(custom).collector())) {
+            assertEquals("Country names longer than " + Integer.MAX_VALUE + " characters:\n", write(results));
+        }
+    }
+
+    @Test
+    public void testConfigurableMatchMode() throws IOException {
+        List<Report<?>> custom = Reports.select(List.of("starts-with-a", "contains-united"),
+                                                new ReportSettings(ExternalSorter.UNLIMITED_BUDGET, 10, 5, 3,
+                                                                   MatchMode.ACCENT_INSENSITIVE, 100, 3));
+        List<String> accented = List.of("Åland", "Émirats Arabes Unis", "UNITED Kingdom", "Chad");
+
+        try (ReportResults results = accented.stream().collect(new ReportEngine(custom).collector())) {
+            String sep = System.lineSeparator();
+            assertEquals("\nCountry names starting with 'A':\nÅland" + sep
+                         + "\n-----Countries that contain \"United\"-----\nUNITED Kingdom" + sep,
+                         write(results));
+        }
+    }
+
+    @Test
+    public void testTopSectionsAreOnlyWrittenWhenSelected() throws IOException {
+        List<Report<?>> top = Reports.select(List.of("top-longest", "count"),
+                                             new ReportSettings(ExternalSorter.UNLIMITED_BUDGET, 10, 5, 3, null, 2, 3));
+
+        assertTrue(reports.stream().noneMatch(report -> report.getName().startsWith("top-")));
+        try (ReportResults results = names.stream().collect(new ReportEngine(top).collector())) {
+            String sep = System.lineSeparator();
+            assertEquals("\n------Count of countries-----\n6"
+                         + "\n------2 longest country names-----\nAfghanistan" + sep + "New Zealand" + sep,
+                         write(results));
+        }
+    }
+
+    @Test
+    public void testSplitSectionsConcatenateToTheReport() throws IOException {
+        try (ReportResults results = names.stream().collect(engine.collector())) {
+            Map<String, ByteArrayOutputStream> outputs = new LinkedHashMap<>();
+            for (Report<?> report : results.getReports()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                outputs.put(report.getName(), out);
+                try (ReportWriter writer = new ReportWriter(out)) {
+                    results.writeSection(report, writer, "countries", null);
+                }
+            }
+
+            assertEquals(reports.stream().map(Report::getName).toList(), List.copyOf(outputs.keySet()));
+            assertEquals("\n------Count of countries-----\n6", outputs.get("count").toString(StandardCharsets.UTF_8));
+            assertEquals(write(results),
+                         outputs.values().stream().map(out -> out.toString(StandardCharsets.UTF_8)).reduce("", String::concat));
+        }
+    }
+
+    @Test
+    public void testDuplicatesAreCountedAcrossChunks() throws IOException {
+        List<String> repeated = List.of("Chad", new String("Cuba"), new String("Chad"), "Cuba", new String("Chad"));
+        List<Report<?>> custom = Reports.select(List.of("duplicates", "multi-word", "longest"), ExternalSorter.UNLIMITED_BUDGET);
+
+        try (ReportResults sequential = repeated.stream().collect(new ReportEngine(custom).collector());
+             ReportResults parallel = repeated.parallelStream().collect(new ReportEngine(custom).collector())) {
+            String sep = System.lineSeparator();
+            assertTrue(write(sequential).endsWith("\n------Duplicate country names-----\nChad: 3" + sep + "Cuba: 2" + sep));
+            assertEquals(write(sequential), write(parallel));
+            assertEquals(5, sequential.getRowsScanned());
+            assertEquals(5, parallel.getRowsScanned());
+        }
+    }
+
+    @Test
+    public void testSectionsShareOneStringPerDistinctName() throws IOException {
+        List<String> repeated = List.of(new String("Afghanistan"), "Chad", new String("Afghanistan"));
+
+        try (ReportResults results = repeated.stream().collect(engine.collector())) {
+            List<String> longest = ((LengthIndex) results.get(section("longest"))).longest();
+            List<String> startingWithA = ((CountryIndex) results.get(section("starts-with-a"))).startingWith("A", MatchMode.EXACT);
+            assertEquals(List.of("Afghanistan", "Afghanistan"), longest);
+            assertSame(longest.get(0), longest.get(1));
+            assertSame(longest.get(0), startingWithA.get(1));
+        }
+    }
+
+    @Test
+    public void testPooledSectionsRemapIdsAcrossChunks() throws IOException {
+        List<String> many = IntStream.range(0, 20_000)
+            .mapToObj(i -> (i % 3 == 0 ? "Aland " : "United Zland ") + (i * 7_919 % 301))
+            .toList();
+        List<String> all = new ArrayList<>(reports.stream().map(Report::getName).toList());
+        all.add("duplicates");
+        all.add("top-words");
+        List<Report<?>> custom = Reports.select(all, 1_024);
+
+        try (ReportResults sequential = many.stream().collect(new ReportEngine(custom).collector());
+             ReportResults parallel = many.parallelStream().collect(new ReportEngine(custom).collector())) {
+            assertEquals(write(sequential), write(parallel));
+        }
+    }
+
+    @Test
+    public void testWordSectionsShareOneTokenizingPass() throws IOException {
+        List<String> countries = List.of("Central African Republic", "Chad", "Dominican Republic",
+                                         "Republic of the Congo", " Cook  Islands ");
+        List<Report<?>> custom = Reports.select(List.of("multi-word", "word-counts", "top-words", "min-words"),
+                                                new ReportSettings(ExternalSorter.UNLIMITED_BUDGET, 10, 5, 3, null, 2, 3));
+
+        assertSame(custom.get(0).getCollector(), custom.get(3).getCollector());
+        try (ReportResults results = countries.stream().collect(new ReportEngine(custom).collector())) {
+            String sep = System.lineSeparator();
+            assertEquals("\n------Countries with more than one word------\n"
+                         + "Central African Republic" + sep + "Dominican Republic" + sep
+                         + "Republic of the Congo" + sep + " Cook  Islands " + sep
+                         + "\n------Countries by number of words-----\n"
+                         + "1 word: 1" + sep + "2 words: 2" + sep + "3 words: 1" + sep + "4 words: 1" + sep
+                         + "\n------2 most frequent words-----\n"
+                         + "Republic: 3" + sep + "Central: 1" + sep
+                         + "\n------Countries with at least 3 words-----\n"
+                         + "Central African Republic" + sep + "Republic of the Congo" + sep,
+                         write(results));
+        }
+    }
+
+    @Test
+    public void testSelectKeepsOutputOrder() {
+        List<String> selected = Reports.select(List.of("count", "starts-with-a"), ExternalSorter.UNLIMITED_BUDGET)
+            .stream()
+            .map(Report::getName)
+            .toList();
+
+        assertEquals(List.of("starts-with-a", "count"), selected);
+        assertThrows(IllegalArgumentException.class,
+                     () -> Reports.select(List.of("no-such-section"), ExternalSorter.UNLIMITED_BUDGET));
+    }
+
+    @Test
+    public void testCloseReleasesEveryResult() {
+        List<String> closed = new ArrayList<>();
+        List<Report<?>> failing = new ArrayList<>();
+        for (String name : List.of("first", "second", "third")) {
+            failing.add(Report.of(name, "", Collectors.collectingAndThen(
+                Collectors.counting(),
+                count -> (Closeable) () -> {
+                    closed.add(name);
+                    if (!name.equals("third")) {
+                        throw new IOException(name);
+                    }
+                }), (result, writer) -> { }));
+        }
+
+        ReportResults results = names.stream().collect(new ReportEngine(failing).collector());
+        IOException e = assertThrows(IOException.class, results::close);
+
+        assertEquals(List.of("first", "second", "third"), closed);
+        assertEquals("first", e.getMessage());
+        assertEquals("second", e.getSuppressed()[0].getMessage());
+    }
+}
@@ -0,0 +1,51 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+public class ReportMetricsTest {
+
+    List<String> names;
+    ReportEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        names = List.of("Chad", "Afghanistan", "Zambia", "New Zealand", "Iceland", "Cuba");
+        engine = new ReportEngine(Reports.builtIn(ExternalSorter.UNLIMITED_BUDGET));
+    }
+
+    @Test
+    public void testOneLinePerSection() throws IOException {
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+
+        try (ReportResults results = names.stream().collect(engine.collector());
+             ReportWriter writer = new ReportWriter(report);
+             ReportMetrics metrics = new ReportMetrics(json)) {
+            assertEquals(6, results.getRowsScanned());
+            for (Report<?> section : results.getReports()) {
+                results.writeSection(section, writer, "in \"quoted\"\\dir", metrics);
+            }
+        }
+
+        String[] lines = json.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(engine.getReports().size(), lines.length);
+        assertTrue(lines[0].startsWith("{\"input\":\"in \\\"quoted\\\"\\\\dir\",\"phase\":\"write\",\"section\":\"long-names\","));
+        assertTrue(lines[0].contains("\"rows_scanned\":6,\"rows_emitted\":2,"));
+
+        long bytes = Arrays.stream(lines)
+            .mapToLong(line -> Long.parseLong(line.replaceAll(".*\"bytes_written\":(\\d+).*", "$1")))
+            .sum();
+        assertEquals(report.size(), bytes);
+    }
+
+    @Test
+    public void testUnmeasurableAllocationIsNull() {
+        SectionMetrics metrics = new SectionMetrics("x", "collect", null, 5, 6, 0, 0, -1);
+        assertEquals("{\"input\":\"x\",\"phase\":\"collect\",\"section\":null,\"wall_ns\":5,\"rows_scanned\":6,"
+                     + "\"rows_emitted\":0,\"bytes_written\":0,\"allocated_bytes\":null}",
+                     metrics.toJson());
+    }
+}
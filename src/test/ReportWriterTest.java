@@ -0,0 +1,75 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class ReportWriterTest {
+
+    ByteArrayOutputStream out;
+    ReportWriter writer;
+
+    @BeforeEach
+    public void setUp() {
+        out = new ByteArrayOutputStream();
+        writer = new ReportWriter(out);
+    }
+
+    @Test
+    public void testWriteLinesEndsEveryLine() throws IOException {
+        writer.write("header\n");
+        writer.writeLines(List.of("Chad", "Cuba"));
+        writer.close();
+
+        String sep = System.lineSeparator();
+        assertEquals("header\nChad" + sep + "Cuba" + sep, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWriteListMatchesListToString() throws IOException {
+        List<String> names = List.of("Chad", "Cuba", "Peru");
+        writer.writeList(names);
+        writer.writeList(List.of());
+        writer.close();
+
+        assertEquals(names.toString() + "[]", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEncodesLikeTheJdk() throws IOException {
+        String text = "Côte d'Ivoire, São Tomé, Ελλάδα, 日本, \uD83C\uDDEF\uD83C\uDDF5, lone \uD800 and \uDC00";
+        for (int i = 0; i < 5_000; i++) {
+            writer.write(text);
+        }
+        writer.write("\uD83D");
+        writer.close();
+
+        String expected = text.repeat(5_000) + "\uD83D";
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    @Test
+    public void testUnpairedSurrogateBeforeANumber() throws IOException {
+        writer.write("Chad\uD83C");
+        writer.writeInt(42);
+        writer.close();
+
+        assertEquals("Chad?42", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testInPlaceTransformations() throws IOException {
+        writer.writeList(List.of("Chad", "côte d'ivoire", "straße"), ReportWriter::writeUpperCase);
+        writer.writeLines(List.of(0, -42, Integer.MIN_VALUE, Integer.MAX_VALUE), ReportWriter::writeInt);
+        writer.writeCodePoint('Z');
+        writer.writeCodePoint(0x1F1EF);
+        writer.close();
+
+        String sep = System.lineSeparator();
+        assertEquals("[CHAD, CÔTE D'IVOIRE, STRASSE]"
+                     + "0" + sep + "-42" + sep + Integer.MIN_VALUE + sep + Integer.MAX_VALUE + sep
+                     + "Z" + Character.toString(0x1F1EF),
+                     out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,55 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.*;
+import java.util.stream.IntStream;
+
+public class TopNamesTest {
+
+    List<String> names;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(7);
+        names = IntStream.range(0, 5_000)
+            .mapToObj(i -> "Country" + "x".repeat(random.nextInt(20)) + random.nextInt(1_000))
+            .toList();
+    }
+
+    private TopNames collect(TopNames.Ranking ranking, int limit, List<String> input) {
+        TopNames top = new TopNames(ranking, limit);
+        input.forEach(top::add);
+        return top;
+    }
+
+    private List<String> firstBySort(Comparator<String> order, int limit) {
+        return names.stream().sorted(order).limit(limit).toList();
+    }
+
+    @Test
+    public void testMatchesAStableSort() {
+        Comparator<String> byLength = Comparator.comparingInt(String::length);
+
+        assertEquals(firstBySort(byLength.reversed(), 25), collect(TopNames.Ranking.LONGEST, 25, names).toList());
+        assertEquals(firstBySort(byLength, 25), collect(TopNames.Ranking.SHORTEST, 25, names).toList());
+        assertEquals(firstBySort(Comparator.naturalOrder(), 100), collect(TopNames.Ranking.ASCENDING, 100, names).toList());
+        assertEquals(firstBySort(Comparator.reverseOrder(), 100), collect(TopNames.Ranking.DESCENDING, 100, names).toList());
+    }
+
+    @Test
+    public void testCombineKeepsInputOrderForTies() {
+        TopNames first = collect(TopNames.Ranking.LONGEST, 30, names.subList(0, 2_500));
+        TopNames second = collect(TopNames.Ranking.LONGEST, 30, names.subList(2_500, names.size()));
+
+        assertEquals(collect(TopNames.Ranking.LONGEST, 30, names).toList(), first.combine(second).toList());
+    }
+
+    @Test
+    public void testNthAndSmallInputs() {
+        TopNames top = collect(TopNames.Ranking.LONGEST, 3, List.of("Chad", "Afghanistan", "Cuba", "Iceland"));
+
+        assertEquals(List.of("Afghanistan", "Iceland", "Chad"), top.toList());
+        assertEquals("Iceland", top.nth(2));
+        assertNull(top.nth(4));
+        assertTrue(collect(TopNames.Ranking.ASCENDING, 0, names).toList().isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.*;
+import java.util.stream.IntStream;
+
+public class WordStatsTest {
+
+    List<String> names;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(3);
+        List<String> words = List.of("Republic", "Islands", "of", "the", "Saint", "Côte", "Ελλάδα", "🇯🇵");
+        List<String> separators = List.of(" ", "  ", "\t", " ");
+        names = IntStream.range(0, 3_000)
+            .mapToObj(i -> {
+                StringBuilder name = new StringBuilder(random.nextBoolean() ? " " : "");
+                for (int w = random.nextInt(5); w >= 0; w--) {
+                    name.append(words.get(random.nextInt(words.size())));
+                    name.append(separators.get(random.nextInt(separators.size())));
+                }
+                return name.toString();
+            })
+            .toList();
+    }
+
+    private static List<String> split(String name) {
+        return Arrays.stream(name.split("[\\s ]+")).filter(word -> !word.isEmpty()).toList();
+    }
+
+    @Test
+    public void testTokenizerFindsOffsetsWithoutSplitting() {
+        assertEquals(0, WordTokenizer.count("   "));
+        assertEquals(3, WordTokenizer.count("  Republic of\tChad "));
+        assertEquals(4, WordTokenizer.wordStart("  a b", 4));
+        assertEquals(8, WordTokenizer.wordEnd("Republic of", 0));
+        for (String name : names) {
+            assertEquals(split(name).size(), WordTokenizer.count(name));
+        }
+    }
+
+    @Test
+    public void testMatchesSplittingEveryName() {
+        WordStats stats = new WordStats();
+        names.forEach(stats::add);
+
+        Map<String, Integer> counts = new HashMap<>();
+        int[] histogram = new int[7];
+        for (String name : names) {
+            List<String> words = split(name);
+            histogram[words.size()]++;
+            words.forEach(word -> counts.merge(word, 1, Integer::sum));
+        }
+        int maxWords = 6;
+        while (histogram[maxWords] == 0) {
+            maxWords--;
+        }
+
+        assertArrayEquals(Arrays.copyOf(histogram, maxWords + 1), stats.histogram());
+        counts.forEach((word, count) -> assertEquals(count, stats.occurrences(word)));
+        assertEquals(0, stats.occurrences("Atlantis"));
+        assertEquals(names.stream().filter(name -> split(name).size() >= 3).toList(), stats.withAtLeast(3));
+        int top = counts.values().stream().max(Integer::compare).orElseThrow();
+        assertEquals(top, stats.occurrences(stats.mostFrequent(1).get(0)));
+    }
+
+    @Test
+    public void testWordsAreSeparatedByAnyWhitespace() {
+        WordStats stats = new WordStats();
+        List.of("Chad", "  Peru\t", "New Zealand", "Saint\tLucia", "Côte\u3000d'Ivoire", "Cabo\u00A0Verde")
+            .forEach(stats::add);
+
+        assertEquals(List.of("New Zealand", "Saint\tLucia", "Côte\u3000d'Ivoire"), stats.withAtLeast(2));
+        assertEquals(1, stats.occurrences("Cabo\u00A0Verde"));
+    }
+
+    @Test
+    public void testCombineMatchesOnePass() {
+        WordStats whole = new WordStats();
+        WordStats first = new WordStats();
+        WordStats second = new WordStats();
+        names.forEach(whole::add);
+        names.subList(0, 1_234).forEach(first::add);
+        names.subList(1_234, names.size()).forEach(second::add);
+        first.combine(second);
+
+        assertArrayEquals(whole.histogram(), first.histogram());
+        assertEquals(whole.mostFrequent(20), first.mostFrequent(20));
+        assertEquals(whole.withAtLeast(2), first.withAtLeast(2));
+    }
+}